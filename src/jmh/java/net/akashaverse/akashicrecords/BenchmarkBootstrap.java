@@ -0,0 +1,17 @@
+package net.akashaverse.akashicrecords;
+
+import net.minecraft.SharedConstants;
+import net.minecraft.server.Bootstrap;
+
+/**
+ * Brings up the vanilla registries so benchmarks can resolve blocks without
+ * starting a server.
+ */
+public final class BenchmarkBootstrap {
+    private BenchmarkBootstrap() {}
+
+    public static synchronized void init() {
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+    }
+}
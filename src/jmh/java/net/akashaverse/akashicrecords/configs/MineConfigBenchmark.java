@@ -0,0 +1,98 @@
+package net.akashaverse.akashicrecords.configs;
+
+import net.akashaverse.akashicrecords.BenchmarkBootstrap;
+import net.akashaverse.akashicrecords.core.mine.MineType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Cost of loading a {@link MineTypeRegistry} from a config directory holding
+ * several layered mine type files, with and without the parse cache, and of
+ * looking a type up once loaded.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MineConfigBenchmark {
+    @Param({"1", "20"})
+    public int files;
+
+    private Path mineDir;
+    private Path cacheFile;
+    private MineTypeRegistry registry;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        BenchmarkBootstrap.init();
+        mineDir = Files.createTempDirectory("akashic-mine-types");
+        for (int i = 0; i < files; i++) {
+            Files.write(mineDir.resolve("type" + i + ".toml"), typeFile());
+        }
+        cacheFile = mineDir.resolve(".cache/types.nbt");
+        registry = MineTypeRegistry.load(mineDir, cacheFile);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(mineDir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public MineTypeRegistry loadUncached() {
+        return MineTypeRegistry.load(mineDir, null);
+    }
+
+    @Benchmark
+    public MineTypeRegistry loadCached() {
+        return MineTypeRegistry.load(mineDir, cacheFile);
+    }
+
+    @Benchmark
+    public MineType lookup() {
+        return registry.get("type0");
+    }
+
+    private static List<String> typeFile() {
+        List<String> lines = new ArrayList<>();
+        lines.add("intervalMinutes = 30");
+        lines.add("warningSeconds = 60");
+        lines.add("blocks = [\"minecraft:stone=70\", \"minecraft:andesite=6\", \"minecraft:granite=6\"]");
+        for (int layer = 0; layer < 3; layer++) {
+            lines.add("[[layers]]");
+            lines.add("blocks = [");
+            for (int i = 0; i < 30; i++) {
+                lines.add("  \"minecraft:stone=" + (i + 1) + "\",");
+            }
+            lines.add("  \"minecraft:coal_ore=8\"");
+            lines.add("]");
+        }
+        return lines;
+    }
+}
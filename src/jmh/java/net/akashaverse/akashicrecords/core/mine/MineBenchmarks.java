@@ -0,0 +1,48 @@
+package net.akashaverse.akashicrecords.core.mine;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.block.Blocks;
+
+import java.util.List;
+
+/**
+ * Mine fixtures shared by the benchmarks in this package.
+ */
+final class MineBenchmarks {
+    private MineBenchmarks() {}
+
+    static final List<WeightedBlock> FLAT = List.of(
+            new WeightedBlock("minecraft:stone", 70.0),
+            new WeightedBlock("minecraft:coal_ore", 10.0),
+            new WeightedBlock("minecraft:iron_ore", 8.0),
+            new WeightedBlock("minecraft:copper_ore", 5.0),
+            new WeightedBlock("minecraft:diamond_ore", 1.0),
+            new WeightedBlock("minecraft:air", 6.0));
+
+    static final List<MineLayer> LAYERS = List.of(
+            new MineLayer(List.of(
+                    new WeightedBlock("minecraft:stone", 60.0),
+                    new WeightedBlock("minecraft:andesite", 8.0),
+                    new WeightedBlock("minecraft:granite", 8.0),
+                    new WeightedBlock("minecraft:coal_ore", 8.0),
+                    new WeightedBlock("minecraft:iron_ore", 5.0))),
+            new MineLayer(List.of(
+                    new WeightedBlock("minecraft:stone", 40.0),
+                    new WeightedBlock("minecraft:tuff", 10.0),
+                    new WeightedBlock("minecraft:gold_ore", 2.0),
+                    new WeightedBlock("minecraft:lapis_ore", 1.0))),
+            new MineLayer(List.of(
+                    new WeightedBlock("minecraft:deepslate", 70.0),
+                    new WeightedBlock("minecraft:deepslate_iron_ore", 6.0),
+                    new WeightedBlock("minecraft:deepslate_diamond_ore", 0.6))));
+
+    /**
+     * A mine whose interior is {@code size} blocks along every axis.
+     */
+    static Mine mine(int x, int z, int size, boolean layered) {
+        BlockPos min = new BlockPos(x, 0, z);
+        BlockPos max = new BlockPos(x + size + 1, size, z + size + 1);
+        return new Mine(min, max, max.above(), 30 * 20 * 60, 60 * 20,
+                Blocks.BEDROCK.defaultBlockState(), FLAT, layered ? LAYERS : null);
+    }
+}
@@ -0,0 +1,125 @@
+package net.akashaverse.akashicrecords.core.mine;
+
+import net.akashaverse.akashicrecords.BenchmarkBootstrap;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.StringTag;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-tick scheduling cost and save/load round trips of a {@link MineManager}
+ * holding many mines.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MineManagerBenchmark {
+    @Param({"10", "1000", "10000"})
+    public int mines;
+
+    private MineManager manager;
+    private MineScheduler scheduler;
+    private CompoundTag saved;
+    private CompoundTag legacy;
+    private long gameTime;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkBootstrap.init();
+        manager = new MineManager();
+        scheduler = new MineScheduler();
+        // no level is needed as long as no deadline comes due
+        manager.attach(null, scheduler);
+        for (int i = 0; i < mines; i++) {
+            Mine mine = MineBenchmarks.mine(i * 32, 0, 16, i % 2 == 0);
+            // spread resets out so an idle tick finds nothing due
+            mine.setNextReset(1_000_000L + i);
+            manager.putMine("mine" + i, mine);
+        }
+        saved = manager.save(new CompoundTag(), null);
+        legacy = legacyFormat(manager);
+        gameTime = 100L;
+    }
+
+    /**
+     * The per-tick work of the {@link MineScheduler} when no mine is due.
+     */
+    @Benchmark
+    public int tickIdle() {
+        scheduler.tick(gameTime);
+        return scheduler.size();
+    }
+
+    /**
+     * Queueing the deadlines of every mine again, as happens when a level loads.
+     */
+    @Benchmark
+    public int scheduleAll() {
+        scheduler.clear();
+        manager.getMines().forEach((name, mine) -> scheduler.schedule(manager, name, mine));
+        return scheduler.size();
+    }
+
+    @Benchmark
+    public CompoundTag save() {
+        return manager.save(new CompoundTag(), null);
+    }
+
+    @Benchmark
+    public MineManager load() {
+        return MineManager.load(saved);
+    }
+
+    /**
+     * Loading data written before the versioned format, which is migrated on load.
+     */
+    @Benchmark
+    public MineManager loadLegacy() {
+        return MineManager.load(legacy);
+    }
+
+    @Benchmark
+    public MineManager roundTrip() {
+        return MineManager.load(manager.save(new CompoundTag(), null));
+    }
+
+    private static CompoundTag legacyFormat(MineManager manager) {
+        CompoundTag minesTag = new CompoundTag();
+        manager.getMines().forEach((name, mine) -> {
+            CompoundTag tag = new CompoundTag();
+            tag.putIntArray("min", new int[]{mine.min.getX(), mine.min.getY(), mine.min.getZ()});
+            tag.putIntArray("max", new int[]{mine.max.getX(), mine.max.getY(), mine.max.getZ()});
+            tag.putIntArray("entrance", new int[]{mine.entrance().getX(), mine.entrance().getY(), mine.entrance().getZ()});
+            tag.putLong("nextReset", mine.nextReset());
+            tag.putInt("refillInterval", mine.refillIntervalTicks);
+            tag.putInt("warning", mine.warningTicks);
+            tag.putString("border", "minecraft:bedrock");
+            ListTag list = new ListTag();
+            for (WeightedBlock wb : mine.distribution) {
+                list.add(StringTag.valueOf(wb.blockId() + "|" + wb.weight()));
+            }
+            tag.put("distribution", list);
+            tag.putBoolean("borderBuilt", mine.isBorderBuilt());
+            minesTag.put(name, tag);
+        });
+        CompoundTag compound = new CompoundTag();
+        compound.put("mines", minesTag);
+        return compound;
+    }
+}
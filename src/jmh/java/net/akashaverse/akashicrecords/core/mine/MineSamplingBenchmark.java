@@ -0,0 +1,158 @@
+package net.akashaverse.akashicrecords.core.mine;
+
+import net.akashaverse.akashicrecords.BenchmarkBootstrap;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.level.block.state.BlockState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of choosing the blocks for one regeneration of a cubic mine, with and
+ * without layers and with or without veins, and of compiling/blending the layer
+ * tables that feed it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MineSamplingBenchmark {
+    @Param({"16", "64"})
+    public int size;
+
+    @Param({"false", "true"})
+    public boolean layered;
+
+    private Mine mine;
+    private RandomSource levelRandom;
+    private MineRandom random;
+    private List<MineTile> tiles;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkBootstrap.init();
+        mine = MineBenchmarks.mine(0, 0, size, layered);
+        levelRandom = RandomSource.create(42L);
+        random = new MineRandom(42L);
+        tiles = MineTile.split(
+                mine.min.getX() + 1, mine.min.getY() + 1, mine.min.getZ() + 1,
+                mine.max.getX() - 1, mine.max.getY(), mine.max.getZ() - 1,
+                MineFillOrder.TOP_DOWN);
+    }
+
+    /**
+     * Sampling every interior block one at a time from a shared {@code RandomSource},
+     * as regenerations did before they got their own {@link MineRandom}.
+     */
+    @Benchmark
+    public void sampleInterior(Blackhole bh) {
+        BlockSampler[] samplers = mine.compiledSamplers();
+        for (BlockSampler sampler : samplers) {
+            for (int i = 0; i < size * size; i++) {
+                bh.consume(sampler.sample(levelRandom));
+            }
+        }
+    }
+
+    /**
+     * The same with the mine's own generator, drawing a whole row of values per call.
+     */
+    @Benchmark
+    public void sampleInteriorBatched(Blackhole bh) {
+        BlockSampler[] samplers = mine.compiledSamplers();
+        long[] bits = new long[size * size];
+        BlockState[] row = new BlockState[size * size];
+        for (BlockSampler sampler : samplers) {
+            random.fill(bits, bits.length);
+            sampler.pickAll(bits, bits.length, row, 0);
+            bh.consume(row);
+        }
+    }
+
+    /**
+     * Planning every tile of the mine on the current thread, i.e. the work
+     * {@link MineFillPlanner} spreads over its pool.
+     */
+    @Benchmark
+    public void planTiles(Blackhole bh) {
+        BlockSampler[] samplers = mine.compiledSamplers();
+        int baseY = mine.min.getY() + 1;
+        for (MineTile tile : tiles) {
+            bh.consume(MineFillPlanner.planTile(tile, samplers, baseY, 42L));
+        }
+    }
+
+    /**
+     * Filling every tile from the flat layer profile, the baseline for {@link #veinTiles}.
+     */
+    @Benchmark
+    public void flatTiles(Blackhole bh) {
+        FillSource source = FillSource.sampled(mine.compiledSamplers(), mine.min.getY() + 1);
+        BlockState[] buffer = new BlockState[16 * 16 * 16];
+        for (MineTile tile : tiles) {
+            bh.consume(source.tileStates(tile, buffer, random));
+        }
+    }
+
+    /**
+     * Filling every tile with ore veins.  Block tags are not bound outside a server,
+     * so nothing counts as ore here and this measures the noise on top of host sampling.
+     */
+    @Benchmark
+    public void veinTiles(Blackhole bh) {
+        int height = mine.max.getY() - mine.min.getY();
+        MineVeinProfile profile = MineLayerProfiles.get().veinProfile(mine.distribution, mine.layers, height, 4);
+        FillSource source = FillSource.veins(profile, mine.min.getY() + 1, new VeinNoise(42L, 4));
+        BlockState[] buffer = new BlockState[16 * 16 * 16];
+        for (MineTile tile : tiles) {
+            bh.consume(source.tileStates(tile, buffer, random));
+        }
+    }
+
+    /**
+     * Compiling the per-layer samplers from scratch, as happens on the first reset
+     * of a mine type and after the mine types are reloaded.
+     */
+    @Benchmark
+    public BlockSampler[] compileSamplers() {
+        return MineLayerProfiles.compile(mine.distribution, mine.layers, mine.max.getY() - mine.min.getY());
+    }
+
+    /**
+     * Looking up the shared profile, as every other mine of the same type does.
+     */
+    @Benchmark
+    public BlockSampler[] sharedProfile() {
+        mine.invalidateSamplers();
+        return mine.compiledSamplers();
+    }
+
+    /**
+     * Blending adjacent layers for every Y level of the mine.
+     */
+    @Benchmark
+    public void blendLayers(Blackhole bh) {
+        if (mine.layers == null) {
+            return;
+        }
+        int height = mine.max.getY() - mine.min.getY();
+        for (int i = 0; i < height; i++) {
+            bh.consume(MineLayerProfiles.blendLayer(mine.layers, i, height));
+        }
+    }
+}
@@ -2,6 +2,7 @@ package net.akashaverse.akashicrecords;
 
 import net.akashaverse.akashicrecords.commands.MineCommands;
 import net.akashaverse.akashicrecords.configs.MineConfig;
+import net.akashaverse.akashicrecords.configs.MineTypeWatcher;
 import net.akashaverse.akashicrecords.items.MineItems;
 import net.akashaverse.akashicrecords.items.ModCreativeModeTabs;
 import org.slf4j.Logger;
@@ -55,7 +56,8 @@ public class AkashicRecords {
 
     @SubscribeEvent
     public void onServerStarting(ServerStartingEvent event) {
-
+        MineConfig.reloadTypes();
+        MineTypeWatcher.start(MineConfig.mineDirectory());
     }
 
     @EventBusSubscriber(modid = AkashicRecords.MOD_ID, bus = EventBusSubscriber.Bus.MOD, value = Dist.CLIENT)
@@ -1,10 +1,18 @@
 package net.akashaverse.akashicrecords.commands;
 
+import com.mojang.brigadier.arguments.LongArgumentType;
 import com.mojang.brigadier.arguments.StringArgumentType;
 import net.akashaverse.akashicrecords.configs.MineConfig;
 import net.akashaverse.akashicrecords.core.mine.Mine;
+import net.akashaverse.akashicrecords.core.mine.MineClientSync;
 import net.akashaverse.akashicrecords.core.mine.MineManager;
+import net.akashaverse.akashicrecords.core.mine.MineRelighter;
+import net.akashaverse.akashicrecords.core.mine.MineSnapshots;
 import net.akashaverse.akashicrecords.core.mine.MineType;
+import net.akashaverse.akashicrecords.core.mine.RegenAdmission;
+import net.akashaverse.akashicrecords.core.mine.RegenBudget;
+import net.akashaverse.akashicrecords.core.mine.metrics.MineMetrics;
+import net.akashaverse.akashicrecords.core.mine.metrics.MineStats;
 import net.akashaverse.akashicrecords.items.mine.SelectionWandItem;
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.commands.Commands;
@@ -12,10 +20,14 @@ import net.minecraft.core.BlockPos;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.network.chat.ClickEvent;
 import net.minecraft.network.chat.Component;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerPlayer;
 import net.neoforged.neoforge.event.RegisterCommandsEvent;
 import net.minecraft.server.level.ServerLevel;
 
+import java.util.Locale;
+
 public class MineCommands {
     public static final String TAG_HIDE_MINE_MESSAGES = "ak_hide_mine_messages";
 
@@ -52,14 +64,25 @@ public class MineCommands {
                                                     var border = net.minecraft.world.level.block.Blocks.BEDROCK.defaultBlockState();
                                                     Mine mine = new Mine(pos1, pos2, spawn,
                                                             type.refillIntervalTicks(), type.warningTicks(),
-                                                            border, type.distribution());
-
+                                                            border, type.distribution(), type.layers());
                                                     ServerLevel level = source.getLevel();
-                                                    mine.nextReset = level.getGameTime() + type.refillIntervalTicks();
+                                                    if (MineConfig.SNAPSHOT_ON_CREATE.get()) {
+                                                        MineSnapshots.capture(level, mine.min, mine.max);
+                                                    }
                                                     MineManager manager = MineManager.get(level);
                                                     manager.putMine(name, mine);
+                                                    manager.setFill(name, type.hasTemplate()
+                                                            ? ResourceLocation.tryParse(type.template())
+                                                            : null, type.veinSize());
 
-                                                    mine.regenerate(level);
+                                                    if (MineConfig.TIME_SLICED_REGEN.get()) {
+                                                        manager.beginRegeneration(name, mine);
+                                                    } else {
+                                                        mine.regenerate(level, MineConfig.FILL_BACKEND.get());
+                                                    }
+                                                    // queue the first reset now, so it is saved even if a sliced
+                                                    // first fill is interrupted; finishing that fill queues it again
+                                                    manager.scheduleNextReset(name);
                                                     source.sendSuccess(() -> Component.literal(
                                                             "Mine '" + name + "' of type '" + type.name() + "' created."
                                                     ), false);
@@ -79,13 +102,10 @@ public class MineCommands {
                                                     String oldName = StringArgumentType.getString(ctx, "old");
                                                     String newName = StringArgumentType.getString(ctx, "new");
                                                     MineManager manager = MineManager.get(level);
-                                                    Mine mine = manager.getMine(oldName);
-                                                    if (mine == null) {
+                                                    if (!manager.renameMine(oldName, newName)) {
                                                         source.sendFailure(Component.literal("Mine not found: " + oldName));
                                                         return 0;
                                                     }
-                                                    manager.removeMine(oldName);
-                                                    manager.putMine(newName, mine);
                                                     source.sendSuccess(() -> Component.literal(
                                                             "Renamed mine '" + oldName + "' to '" + newName + "'."
                                                     ), false);
@@ -104,8 +124,7 @@ public class MineCommands {
                                                 source.sendFailure(Component.literal("Mine not found: " + name));
                                                 return 0;
                                             }
-                                            mine.entrance = player.blockPosition().above();
-                                            manager.setDirty();
+                                            manager.setEntrance(name, player.blockPosition().above());
                                             source.sendSuccess(() -> Component.literal(
                                                     "Set spawn for mine '" + name + "' to your current position."
                                             ), false);
@@ -135,22 +154,72 @@ public class MineCommands {
                             }
                             return 1;
                         }))
-                        // delete <name>
-                        .then(Commands.literal("delete")
+                        // stats [name]
+                        .then(Commands.literal("stats")
+                                .executes(ctx -> {
+                                    CommandSourceStack source = ctx.getSource();
+                                    MinecraftServer server = source.getServer();
+                                    MineMetrics metrics = MineMetrics.get();
+                                    source.sendSuccess(() -> Component.literal(String.format(Locale.ROOT,
+                                            "Mines: %.2f ms/tick (%.1f%% of MSPT), worst tick %.2f ms",
+                                            metrics.averageTickNanos() / 1e6, metrics.tickShare(server) * 100,
+                                            metrics.ticks().max() / 1e6)), false);
+                                    RegenBudget budget = RegenAdmission.get().newBudget();
+                                    source.sendSuccess(() -> Component.literal(String.format(Locale.ROOT,
+                                            "Regeneration budget: %.0f%% (%d blocks per tick)",
+                                            RegenAdmission.get().factor() * 100, budget.blocksRemaining())), false);
+                                    source.sendSuccess(() -> Component.literal(String.format(Locale.ROOT,
+                                            "Pending: %d client syncs, %d sections to relight",
+                                            MineClientSync.get().size(), MineRelighter.get().size())), false);
+                                    return 1;
+                                })
                                 .then(Commands.argument("name", StringArgumentType.word())
                                         .executes(ctx -> {
                                             CommandSourceStack source = ctx.getSource();
                                             String name = StringArgumentType.getString(ctx, "name");
-                                            ServerLevel level = source.getLevel();
-                                            MineManager manager = MineManager.get(level);
-                                            if (manager.getMines().containsKey(name)) {
-                                                manager.removeMine(name);
-                                                source.sendSuccess(() -> Component.literal("Removed mine " + name), false);
-                                            } else {
+                                            Mine mine = MineManager.get(source.getLevel()).getMine(name);
+                                            if (mine == null) {
                                                 source.sendFailure(Component.literal("Mine not found: " + name));
+                                                return 0;
                                             }
+                                            MineStats stats = mine.stats;
+                                            source.sendSuccess(() -> Component.literal(String.format(Locale.ROOT,
+                                                    "Mine '%s': %d resets, %d skipped, %d deferred, last seed %d",
+                                                    name, stats.resets, stats.skippedResets, stats.deferredResets,
+                                                    mine.lastSeed())), false);
+                                            source.sendSuccess(() -> Component.literal(String.format(Locale.ROOT,
+                                                    "Regeneration: p50 %.2f ms, p95 %.2f ms, max %.2f ms, %.0f blocks/s",
+                                                    stats.regen.quantile(0.5) / 1e6, stats.regen.quantile(0.95) / 1e6,
+                                                    stats.regen.max() / 1e6, stats.blocksPerSecond())), false);
+                                            source.sendSuccess(() -> Component.literal(String.format(Locale.ROOT,
+                                                    "Written: %d blocks, %d sections, %d chunks",
+                                                    stats.blocksWritten, stats.sectionsTouched, stats.chunksTouched)), false);
+                                            source.sendSuccess(() -> Component.literal(String.format(Locale.ROOT,
+                                                    "Warnings: avg %.1f µs, evictions: avg %.1f µs, %d players evicted",
+                                                    stats.warnings.mean() / 1e3, stats.evictions.mean() / 1e3,
+                                                    stats.playersEvicted)), false);
+                                            source.sendSuccess(() -> Component.literal(String.format(Locale.ROOT,
+                                                    "Border: %d positions checked, %d blocks repaired",
+                                                    stats.borderChecks, stats.borderRepairs)), false);
                                             return 1;
                                         })))
+                        // reset <name> [seed]
+                        .then(Commands.literal("reset")
+                                .then(Commands.argument("name", StringArgumentType.word())
+                                        .executes(ctx -> resetMine(ctx.getSource(),
+                                                StringArgumentType.getString(ctx, "name"), null))
+                                        .then(Commands.argument("seed", LongArgumentType.longArg())
+                                                .executes(ctx -> resetMine(ctx.getSource(),
+                                                        StringArgumentType.getString(ctx, "name"),
+                                                        LongArgumentType.getLong(ctx, "seed"))))))
+                        // delete <name> [--restore]
+                        .then(Commands.literal("delete")
+                                .then(Commands.argument("name", StringArgumentType.word())
+                                        .executes(ctx -> deleteMine(ctx.getSource(),
+                                                StringArgumentType.getString(ctx, "name"), false))
+                                        .then(Commands.literal("--restore")
+                                                .executes(ctx -> deleteMine(ctx.getSource(),
+                                                        StringArgumentType.getString(ctx, "name"), true)))))
         );
 
         dispatcher.register(
@@ -179,8 +248,39 @@ public class MineCommands {
         );
     }
 
+    private static int resetMine(CommandSourceStack source, String name, Long seed) {
+        if (!MineManager.get(source.getLevel()).resetNow(name, seed)) {
+            source.sendFailure(Component.literal("Mine not found: " + name));
+            return 0;
+        }
+        source.sendSuccess(() -> Component.literal(seed == null
+                ? "Resetting mine " + name
+                : "Resetting mine " + name + " with seed " + seed), false);
+        return 1;
+    }
+
+    private static int deleteMine(CommandSourceStack source, String name, boolean restore) {
+        MineManager manager = MineManager.get(source.getLevel());
+        Mine mine = manager.getMine(name);
+        if (mine == null) {
+            source.sendFailure(Component.literal("Mine not found: " + name));
+            return 0;
+        }
+        if (!restore) {
+            manager.removeMine(name);
+            source.sendSuccess(() -> Component.literal("Removed mine " + name), false);
+            return 1;
+        }
+        if (!manager.restoreMine(name)) {
+            source.sendFailure(Component.literal("Mine " + name + " has no terrain snapshot to restore"));
+            return 0;
+        }
+        source.sendSuccess(() -> Component.literal("Removed mine " + name + ", restoring its terrain"), false);
+        return 1;
+    }
+
     private static ClickEvent getClickEvent(Mine mine) {
-        BlockPos ent = mine.entrance;
+        BlockPos ent = mine.entrance();
         double destX = ent.getX() + 0.5;
         double destZ = ent.getZ() + 0.5;
         double centerX = (mine.min.getX() + mine.max.getX()) / 2.0 + 0.5;
@@ -1,8 +1,11 @@
 package net.akashaverse.akashicrecords.configs;
 
-import com.electronwill.nightconfig.core.file.CommentedFileConfig;
-import net.akashaverse.akashicrecords.core.mine.MineLayer;
+import net.akashaverse.akashicrecords.core.mine.MineFillBackend;
+import net.akashaverse.akashicrecords.core.mine.MineFillOrder;
+import net.akashaverse.akashicrecords.core.mine.MineRelightMode;
+import net.akashaverse.akashicrecords.core.mine.MineResetMode;
 import net.akashaverse.akashicrecords.core.mine.MineType;
+import net.akashaverse.akashicrecords.core.mine.PatternStorage;
 import net.akashaverse.akashicrecords.core.mine.WeightedBlock;
 import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.resources.ResourceLocation;
@@ -13,106 +16,183 @@ import org.jetbrains.annotations.NotNull;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
 
 
 public class MineConfig {
-    public static final ModConfigSpec SPEC = new ModConfigSpec.Builder().build();
+    private static final ModConfigSpec.Builder BUILDER = new ModConfigSpec.Builder();
 
-    private static final Map<String, MineType> FILE_TYPES = new HashMap<>();
+    public static final ModConfigSpec.BooleanValue TIME_SLICED_REGEN = BUILDER
+            .comment("Spread mine regeneration over several ticks instead of filling the whole mine at once")
+            .define("regeneration.timeSliced", true);
+
+    public static final ModConfigSpec.IntValue REGEN_BLOCKS_PER_TICK = BUILDER
+            .comment("Maximum number of blocks written per tick by all regenerating mines together, across every level")
+            .defineInRange("regeneration.blocksPerTick", 32768, 1, Integer.MAX_VALUE);
+
+    public static final ModConfigSpec.IntValue REGEN_MILLIS_PER_TICK = BUILDER
+            .comment("Maximum milliseconds spent regenerating mines per tick across every level (0 disables the time limit)")
+            .defineInRange("regeneration.millisPerTick", 10, 0, 1000);
+
+    public static final ModConfigSpec.EnumValue<MineFillOrder> FILL_ORDER = BUILDER
+            .comment("Order in which a time-sliced regeneration refills the mine; TOP_DOWN restores the surface first")
+            .defineEnum("regeneration.fillOrder", MineFillOrder.TOP_DOWN);
+
+    public static final ModConfigSpec.EnumValue<MineFillBackend> FILL_BACKEND = BUILDER
+            .comment("How regenerated blocks are written: SET_BLOCK updates every block individually,",
+                    "CHUNK_SECTION writes chunk sections directly and resends the touched chunks once")
+            .defineEnum("regeneration.backend", MineFillBackend.CHUNK_SECTION);
+
+    public static final ModConfigSpec.BooleanValue PARALLEL_PLANNING = BUILDER
+            .comment("Choose the blocks of a time-sliced regeneration on background threads; the server thread only writes them")
+            .define("regeneration.parallelPlanning", true);
+
+    public static final ModConfigSpec.BooleanValue PREPARE_DURING_WARNING = BUILDER
+            .comment("Plan the next fill in the background when the reset warning goes out, so the reset only evicts players",
+                    "and writes the prepared blocks. Not used by delta resets, templates, vein fills or pattern variants")
+            .define("regeneration.prepareDuringWarning", true);
+
+    public static final ModConfigSpec.IntValue PLANNER_THREADS = BUILDER
+            .comment("Number of background threads used to plan regenerations (0 uses all but one core)")
+            .worldRestart()
+            .defineInRange("regeneration.plannerThreads", 0, 0, 256);
+
+    public static final ModConfigSpec.IntValue PATTERN_VARIANTS = BUILDER
+            .comment("Number of pre-generated fills kept per mine; resets cycle and mirror through them instead of",
+                    "sampling every block again (0 disables pre-generated fills)")
+            .defineInRange("regeneration.patternVariants", 0, 0, 64);
+
+    public static final ModConfigSpec.EnumValue<PatternStorage> PATTERN_STORAGE = BUILDER
+            .comment("Where pre-generated fills are kept: MEMORY or MAPPED_FILE under the world's data folder")
+            .defineEnum("regeneration.patternStorage", PatternStorage.MEMORY);
+
+    public static final ModConfigSpec.EnumValue<MineResetMode> RESET_MODE = BUILDER
+            .comment("What a reset rewrites: FULL refills the whole interior, DELTA only the blocks players changed",
+                    "since the last reset and skips resets of untouched mines. DELTA is approximate: falling blocks, fluids,",
+                    "pistons, fire, /setblock and other mods are not tracked, see regeneration.deltaFullResetEvery")
+            .defineEnum("regeneration.resetMode", MineResetMode.FULL);
+
+    public static final ModConfigSpec.IntValue DELTA_FULL_RESET_EVERY = BUILDER
+            .comment("In DELTA mode, refill the whole interior after this many delta or skipped resets in a row,",
+                    "so changes DELTA does not track are corrected. 0 never forces a full reset")
+            .defineInRange("regeneration.deltaFullResetEvery", 8, 0, 1024);
+
+    public static final ModConfigSpec.DoubleValue TARGET_MSPT = BUILDER
+            .comment("Average milliseconds per tick above which the regeneration limits above are scaled down",
+                    "for every level together, and below which they recover")
+            .defineInRange("regeneration.targetMspt", 40.0, 1.0, 1000.0);
+
+    public static final ModConfigSpec.IntValue RESET_JITTER_PERCENT = BUILDER
+            .comment("Delay each reset by up to this percentage of its interval, deterministically per mine,",
+                    "so mines created together do not keep resetting on the same tick")
+            .defineInRange("regeneration.resetJitterPercent", 10, 0, 100);
+
+    public static final ModConfigSpec.BooleanValue LOG_RESET_SEEDS = BUILDER
+            .comment("Log the seed of every reset so it can be repeated exactly with /mine reset <name> <seed>")
+            .define("regeneration.logSeeds", false);
+
+    public static final ModConfigSpec.BooleanValue LAZY_UNLOADED_RESETS = BUILDER
+            .comment("Defer resets of mines whose chunks are all unloaded; each chunk is refilled when it loads again")
+            .define("regeneration.lazyUnloaded", true);
+
+    public static final ModConfigSpec.IntValue BORDER_CHECKS_PER_TICK = BUILDER
+            .comment("Border positions checked for damage per tick across every level; damaged ones are put back.",
+                    "Sections that hold only the border block are skipped at once. 0 disables the check")
+            .defineInRange("border.checksPerTick", 256, 0, 65536);
+
+    public static final ModConfigSpec.BooleanValue SNAPSHOT_ON_CREATE = BUILDER
+            .comment("Save the terrain of a region before /mine create fills it, so /mine delete <name> --restore can put it back.",
+                    "Snapshots are compressed files under data/akashicrecords/dimensions/<dimension>/snapshots in the world save")
+            .define("snapshot.onCreate", true);
+
+    public static final ModConfigSpec.EnumValue<MineRelightMode> RELIGHT_MODE = BUILDER
+            .comment("When CHUNK_SECTION regenerations relight: PER_BLOCK as each block is written, PER_SECTION once per",
+                    "section after each slice, LOW_PRIORITY once per section after the reset while the light engine is idle")
+            .defineEnum("lighting.mode", MineRelightMode.PER_BLOCK);
+
+    public static final ModConfigSpec.IntValue RELIGHT_SECTIONS_PER_TICK = BUILDER
+            .comment("Maximum number of regenerated sections handed to the light engine per tick")
+            .defineInRange("lighting.sectionsPerTick", 64, 1, 65536);
+
+    public static final ModConfigSpec.IntValue RELIGHT_MAX_DEFER_TICKS = BUILDER
+            .comment("Ticks a LOW_PRIORITY section waits for the light engine to go idle before it is relit anyway")
+            .defineInRange("lighting.maxDeferTicks", 200, 0, 72000);
+
+    public static final ModConfigSpec.IntValue SYNC_FULL_CHUNK_THRESHOLD = BUILDER
+            .comment("Changed blocks in one chunk section above which a reset resends the whole chunk to clients",
+                    "instead of a section update")
+            .defineInRange("sync.fullChunkThreshold", 1024, 1, 4096);
+
+    public static final ModConfigSpec.IntValue SYNC_BYTES_PER_PLAYER_TICK = BUILDER
+            .comment("Estimated bytes of mine reset updates sent to each player per tick; the nearest changes go first")
+            .defineInRange("sync.bytesPerPlayerTick", 65536, 1024, Integer.MAX_VALUE);
+
+    public static final ModConfigSpec.IntValue METRICS_EXPORT_SECONDS = BUILDER
+            .comment("Seconds between writes of data/akashicrecords/mines.prom (OpenMetrics text) in the world folder",
+                    "(0 disables the export)")
+            .defineInRange("metrics.exportSeconds", 30, 0, 86400);
+
+    public static final ModConfigSpec SPEC = BUILDER.build();
+
+    private static final AtomicReference<MineTypeRegistry> TYPES = new AtomicReference<>();
 
     private MineConfig() {}
 
+    /**
+     * Looks a type up in the loaded registry, falling back to the built‑in default
+     * type when no file defines it.  Loads the registry on first use.
+     */
     public static MineType getType(String typeName) {
-        loadMineTypesFromFiles();
-        String key = typeName == null ? "" : typeName.toLowerCase(Locale.ROOT);
-        MineType type = FILE_TYPES.get(key);
+        String key = typeName == null ? "" : typeName;
+        MineType type = types().get(key);
         if (type != null) return type;
         return fallbackType();
     }
 
-    private static void loadMineTypesFromFiles() {
-        FILE_TYPES.clear();
+    /**
+     * The current set of mine types.  Replaced as a whole when the files change,
+     * so callers holding a registry keep seeing a consistent snapshot.
+     */
+    public static MineTypeRegistry types() {
+        MineTypeRegistry registry = TYPES.get();
+        if (registry == null) {
+            registry = reloadTypes();
+        }
+        return registry;
+    }
+
+    /**
+     * Re‑reads the mine type files and publishes the result.
+     */
+    public static MineTypeRegistry reloadTypes() {
+        Path mineDir = ensureMineDirectory();
+        MineTypeRegistry registry = MineTypeRegistry.load(mineDir, cacheFile(mineDir));
+        TYPES.set(registry);
+        return registry;
+    }
+
+    public static Path mineDirectory() {
+        return ensureMineDirectory();
+    }
+
+    static Path cacheFile(Path mineDir) {
+        return mineDir.resolve(".cache/types.nbt");
+    }
+
+    private static Path ensureMineDirectory() {
+        Path configDir = FMLPaths.CONFIGDIR.get();
+        Path mineDir = configDir.resolve("AkashicRecords/Mine");
         try {
-            Path configDir = FMLPaths.CONFIGDIR.get();
-            Path mineDir = configDir.resolve("AkashicRecords/Mine");
             if (!Files.exists(mineDir)) Files.createDirectories(mineDir);
 
             Path defaultFile = mineDir.resolve("default.toml");
             if (!Files.exists(defaultFile)) {
                 Files.write(defaultFile, buildDefaultToml());
             }
-
-            try (var stream = Files.list(mineDir)) {
-                stream.filter(p -> p.toString().endsWith(".toml")).forEach(path -> {
-                    String fileName = path.getFileName().toString();
-                    String typeName = fileName.substring(0, fileName.length() - 5);
-                    try (CommentedFileConfig config = CommentedFileConfig.builder(path).sync().autosave().build()) {
-                        config.load();
-
-                        int intervalMinutes = config.getOrElse("intervalMinutes", 30);
-                        int warningSeconds = config.getOrElse("warningSeconds", 60);
-
-                        List<WeightedBlock> topDistribution = new ArrayList<>();
-                        if (config.contains("blocks")) {
-                            List<String> blocks = config.get("blocks");
-                            if (blocks != null) {
-                                for (String entry : blocks) {
-                                    String[] kv = entry.split("=");
-                                    String id = kv.length > 0 ? kv[0].trim() : "minecraft:stone";
-                                    double weight = 1.0;
-                                    if (kv.length > 1) {
-                                        try { weight = Double.parseDouble(kv[1]); } catch (NumberFormatException ignored) {}
-                                    }
-                                    topDistribution.add(new WeightedBlock(id, weight));
-                                }
-                            }
-                        }
-
-                        List<MineLayer> layerList = new ArrayList<>();
-                        if (config.contains("layers")) {
-                            Object layersObj = config.get("layers");
-                            if (layersObj instanceof List<?> layersRaw) {
-                                for (Object entry : layersRaw) {
-                                    if (entry instanceof Map<?, ?> map) {
-                                        Object blockListObj = map.get("blocks");
-                                        if (blockListObj instanceof List<?> layerBlocks) {
-                                            List<WeightedBlock> layerWeights = getWeightedBlocks(layerBlocks);
-                                            layerList.add(new MineLayer(layerWeights));
-                                        }
-                                    }
-                                }
-                            }
-                        }
-
-                        int intervalTicks = intervalMinutes * 20 * 60;
-                        int warningTicks = warningSeconds * 20;
-                        List<MineLayer> layers = layerList.isEmpty() ? List.of() : List.copyOf(layerList);
-                        MineType type = new MineType(typeName, intervalTicks, warningTicks, topDistribution, layers);
-                        FILE_TYPES.put(typeName.toLowerCase(Locale.ROOT), type);
-                    } catch (Exception e) {
-                        System.err.println("Failed to load mine type from " + path + ": " + e.getMessage());
-                    }
-                });
-            }
         } catch (Exception e) {
             System.err.println("Error loading mine type configs: " + e.getMessage());
         }
-    }
-
-    private static @NotNull List<WeightedBlock> getWeightedBlocks(List<?> layerBlocks) {
-        List<WeightedBlock> layerWeights = new ArrayList<>();
-        for (Object obj : layerBlocks) {
-            if (obj instanceof String str) {
-                String[] kv = str.split("=");
-                String id = kv.length > 0 ? kv[0].trim() : "minecraft:stone";
-                double weight = 1.0;
-                if (kv.length > 1) {
-                    try { weight = Double.parseDouble(kv[1]); } catch (NumberFormatException ignored) {}
-                }
-                layerWeights.add(new WeightedBlock(id, weight));
-            }
-        }
-        return layerWeights;
+        return mineDir;
     }
 
     private static List<String> buildDefaultToml() {
@@ -157,6 +237,14 @@ public class MineConfig {
         lines.add("intervalMinutes = 30");
         lines.add("warningSeconds = 60");
         lines.add("");
+        lines.add("# Optional structure template (namespace:path) repeated across the mine instead of the");
+        lines.add("# block lists below, e.g. a template saved with a structure block as generated/<ns>/structures/<path>.nbt");
+        lines.add("# template = \"minecraft:my_mine\"");
+        lines.add("");
+        lines.add("# Optional vein size in blocks. When above 0, ores (blocks tagged c:ores) form veins of");
+        lines.add("# about this size instead of single scattered blocks; each layer keeps its ore share.");
+        lines.add("veinSize = 0");
+        lines.add("");
         lines.add("# Optional top-level fallback if no layers are defined");
         lines.add("blocks = [");
         lines.add("  \"minecraft:stone=70\",");
@@ -0,0 +1,289 @@
+package net.akashaverse.akashicrecords.configs;
+
+import com.electronwill.nightconfig.core.UnmodifiableConfig;
+import com.electronwill.nightconfig.core.file.CommentedFileConfig;
+import net.akashaverse.akashicrecords.AkashicRecords;
+import net.akashaverse.akashicrecords.core.mine.MineLayer;
+import net.akashaverse.akashicrecords.core.mine.MineType;
+import net.akashaverse.akashicrecords.core.mine.WeightedBlock;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.NbtAccounter;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.Tag;
+import net.minecraft.resources.ResourceLocation;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable set of mine types parsed from the TOML files in the mine config folder.
+ * Block ids are resolved against the block registry when the registry is built:
+ * they are normalised to their canonical form and unknown ids are reported once and
+ * replaced by stone, which is what generation falls back to anyway.
+ * <p>
+ * Parsed types are also written to a small NBT cache next to the TOML files, keyed
+ * by each file's size and modification time, so unchanged files are not parsed
+ * again on the next start.
+ */
+public class MineTypeRegistry {
+    public static final MineTypeRegistry EMPTY = new MineTypeRegistry(Map.of());
+
+    private static final int CACHE_VERSION = 3;
+
+    private final Map<String, MineType> types;
+
+    private MineTypeRegistry(Map<String, MineType> types) {
+        this.types = types;
+    }
+
+    /**
+     * The type with the given name (case‑insensitive), or null.
+     */
+    public @Nullable MineType get(String name) {
+        return types.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    public Collection<MineType> all() {
+        return types.values();
+    }
+
+    public int size() {
+        return types.size();
+    }
+
+    /**
+     * Reads every {@code .toml} file in {@code mineDir}.  Files whose fingerprint matches
+     * an entry in {@code cacheFile} are taken from the cache; the cache is rewritten
+     * afterwards if anything changed.
+     */
+    public static MineTypeRegistry load(Path mineDir, @Nullable Path cacheFile) {
+        CompoundTag cache = cacheFile == null ? new CompoundTag() : readCache(cacheFile);
+        CompoundTag newCache = new CompoundTag();
+        boolean cacheChanged = false;
+        Map<String, MineType> types = new HashMap<>();
+        Set<String> unknownIds = new HashSet<>();
+
+        List<Path> files;
+        try (var stream = Files.list(mineDir)) {
+            files = stream.filter(p -> p.toString().endsWith(".toml")).toList();
+        } catch (IOException e) {
+            AkashicRecords.LOGGER.error("Error loading mine type configs from {}", mineDir, e);
+            return EMPTY;
+        }
+
+        for (Path path : files) {
+            String fileName = path.getFileName().toString();
+            String typeName = fileName.substring(0, fileName.length() - 5);
+            try {
+                long fingerprint = fingerprint(path);
+                CompoundTag cached = cache.getCompound(fileName);
+                MineType type;
+                if (cached.contains("type") && cached.getLong("fingerprint") == fingerprint) {
+                    type = readType(typeName, cached.getCompound("type"));
+                } else {
+                    type = parse(path, typeName);
+                    cacheChanged = true;
+                }
+                CompoundTag entry = new CompoundTag();
+                entry.putLong("fingerprint", fingerprint);
+                entry.put("type", writeType(type));
+                newCache.put(fileName, entry);
+                types.put(typeName.toLowerCase(Locale.ROOT), resolve(type, unknownIds));
+            } catch (Exception e) {
+                AkashicRecords.LOGGER.error("Failed to load mine type from {}", path, e);
+            }
+        }
+        if (!unknownIds.isEmpty()) {
+            AkashicRecords.LOGGER.warn("Unknown blocks in mine type configs, using stone instead: {}", unknownIds);
+        }
+
+        if (cacheFile != null && (cacheChanged || newCache.size() != cache.size())) {
+            writeCache(cacheFile, newCache);
+        }
+        return new MineTypeRegistry(Map.copyOf(types));
+    }
+
+    /**
+     * Parses one mine type file.  The file is only read, never written back.
+     */
+    static MineType parse(Path path, String typeName) {
+        try (CommentedFileConfig config = CommentedFileConfig.builder(path).build()) {
+            config.load();
+
+            int intervalMinutes = config.getOrElse("intervalMinutes", 30);
+            int warningSeconds = config.getOrElse("warningSeconds", 60);
+            String template = config.getOrElse("template", "");
+            int veinSize = Math.max(0, config.getIntOrElse("veinSize", 0));
+
+            List<WeightedBlock> topDistribution = new ArrayList<>();
+            if (config.contains("blocks")) {
+                Object blocks = config.get("blocks");
+                if (blocks instanceof List<?> list) {
+                    topDistribution = getWeightedBlocks(list);
+                }
+            }
+
+            List<MineLayer> layerList = new ArrayList<>();
+            if (config.contains("layers")) {
+                Object layersObj = config.get("layers");
+                if (layersObj instanceof List<?> layersRaw) {
+                    for (Object entry : layersRaw) {
+                        Object blockListObj = null;
+                        if (entry instanceof UnmodifiableConfig table) {
+                            blockListObj = table.get("blocks");
+                        } else if (entry instanceof Map<?, ?> map) {
+                            blockListObj = map.get("blocks");
+                        }
+                        if (blockListObj instanceof List<?> layerBlocks) {
+                            layerList.add(new MineLayer(getWeightedBlocks(layerBlocks)));
+                        }
+                    }
+                }
+            }
+
+            int intervalTicks = intervalMinutes * 20 * 60;
+            int warningTicks = warningSeconds * 20;
+            List<MineLayer> layers = layerList.isEmpty() ? List.of() : List.copyOf(layerList);
+            return new MineType(typeName, intervalTicks, warningTicks, List.copyOf(topDistribution), layers,
+                    template.isBlank() ? null : template.trim(), veinSize);
+        }
+    }
+
+    private static List<WeightedBlock> getWeightedBlocks(List<?> entries) {
+        List<WeightedBlock> weights = new ArrayList<>();
+        for (Object obj : entries) {
+            if (obj instanceof String str) {
+                String[] kv = str.split("=");
+                String id = kv.length > 0 ? kv[0].trim() : "minecraft:stone";
+                double weight = 1.0;
+                if (kv.length > 1) {
+                    try { weight = Double.parseDouble(kv[1]); } catch (NumberFormatException ignored) {}
+                }
+                weights.add(new WeightedBlock(id, weight));
+            }
+        }
+        return weights;
+    }
+
+    private static MineType resolve(MineType type, Set<String> unknownIds) {
+        List<MineLayer> layers = new ArrayList<>(type.layers().size());
+        for (MineLayer layer : type.layers()) {
+            layers.add(new MineLayer(resolve(layer.distribution(), unknownIds)));
+        }
+        String template = type.template();
+        if (type.hasTemplate()) {
+            ResourceLocation key = ResourceLocation.tryParse(template);
+            if (key == null) {
+                AkashicRecords.LOGGER.warn("Invalid template id '{}' in mine type {}, using its block lists", template, type.name());
+                template = null;
+            } else {
+                template = key.toString();
+            }
+        }
+        return new MineType(type.name(), type.refillIntervalTicks(), type.warningTicks(),
+                resolve(type.distribution(), unknownIds), List.copyOf(layers), template, type.veinSize());
+    }
+
+    private static List<WeightedBlock> resolve(List<WeightedBlock> distribution, Set<String> unknownIds) {
+        List<WeightedBlock> resolved = new ArrayList<>(distribution.size());
+        for (WeightedBlock wb : distribution) {
+            ResourceLocation key = ResourceLocation.tryParse(wb.blockId());
+            if (key == null || !BuiltInRegistries.BLOCK.containsKey(key)) {
+                unknownIds.add(wb.blockId());
+                resolved.add(new WeightedBlock("minecraft:stone", wb.weight()));
+            } else {
+                resolved.add(new WeightedBlock(key.toString(), wb.weight()));
+            }
+        }
+        return List.copyOf(resolved);
+    }
+
+    private static long fingerprint(Path path) throws IOException {
+        return Files.size(path) * 31L + Files.getLastModifiedTime(path).toMillis();
+    }
+
+    private static CompoundTag writeType(MineType type) {
+        CompoundTag tag = new CompoundTag();
+        tag.putInt("interval", type.refillIntervalTicks());
+        tag.putInt("warning", type.warningTicks());
+        tag.put("blocks", writeDistribution(type.distribution()));
+        ListTag layers = new ListTag();
+        for (MineLayer layer : type.layers()) {
+            layers.add(writeDistribution(layer.distribution()));
+        }
+        tag.put("layers", layers);
+        if (type.hasTemplate()) {
+            tag.putString("template", type.template());
+        }
+        tag.putInt("veinSize", type.veinSize());
+        return tag;
+    }
+
+    private static MineType readType(String name, CompoundTag tag) {
+        ListTag layersTag = tag.getList("layers", Tag.TAG_LIST);
+        List<MineLayer> layers = new ArrayList<>(layersTag.size());
+        for (int i = 0; i < layersTag.size(); i++) {
+            layers.add(new MineLayer(readDistribution(layersTag.getList(i))));
+        }
+        return new MineType(name, tag.getInt("interval"), tag.getInt("warning"),
+                readDistribution(tag.getList("blocks", Tag.TAG_COMPOUND)), List.copyOf(layers),
+                tag.contains("template") ? tag.getString("template") : null, tag.getInt("veinSize"));
+    }
+
+    private static ListTag writeDistribution(List<WeightedBlock> distribution) {
+        ListTag list = new ListTag();
+        for (WeightedBlock wb : distribution) {
+            CompoundTag entry = new CompoundTag();
+            entry.putString("id", wb.blockId());
+            entry.putDouble("weight", wb.weight());
+            list.add(entry);
+        }
+        return list;
+    }
+
+    private static List<WeightedBlock> readDistribution(ListTag list) {
+        List<WeightedBlock> distribution = new ArrayList<>(list.size());
+        for (int i = 0; i < list.size(); i++) {
+            CompoundTag entry = list.getCompound(i);
+            distribution.add(new WeightedBlock(entry.getString("id"), entry.getDouble("weight")));
+        }
+        return List.copyOf(distribution);
+    }
+
+    private static CompoundTag readCache(Path cacheFile) {
+        if (!Files.exists(cacheFile)) {
+            return new CompoundTag();
+        }
+        try {
+            CompoundTag root = NbtIo.readCompressed(cacheFile, NbtAccounter.unlimitedHeap());
+            return root.getInt("version") == CACHE_VERSION ? root.getCompound("files") : new CompoundTag();
+        } catch (IOException e) {
+            AkashicRecords.LOGGER.warn("Ignoring unreadable mine type cache {}", cacheFile, e);
+            return new CompoundTag();
+        }
+    }
+
+    private static void writeCache(Path cacheFile, CompoundTag files) {
+        CompoundTag root = new CompoundTag();
+        root.putInt("version", CACHE_VERSION);
+        root.put("files", files);
+        try {
+            Files.createDirectories(cacheFile.getParent());
+            NbtIo.writeCompressed(root, cacheFile);
+        } catch (IOException e) {
+            AkashicRecords.LOGGER.warn("Could not write mine type cache {}", cacheFile, e);
+        }
+    }
+}
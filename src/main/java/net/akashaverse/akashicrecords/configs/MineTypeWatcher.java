@@ -0,0 +1,89 @@
+package net.akashaverse.akashicrecords.configs;
+
+import net.akashaverse.akashicrecords.AkashicRecords;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the mine type folder and reloads {@link MineConfig#types()} when a
+ * {@code .toml} file is created, changed or deleted.  Editors tend to write a file
+ * in several steps, so events are collected until the folder has been quiet for
+ * {@link #DEBOUNCE_MILLIS} before reloading.
+ */
+public class MineTypeWatcher {
+    private static final long DEBOUNCE_MILLIS = 500;
+
+    private static MineTypeWatcher running;
+
+    private final WatchService service;
+    private final Thread thread;
+
+    private MineTypeWatcher(Path mineDir) throws IOException {
+        this.service = FileSystems.getDefault().newWatchService();
+        mineDir.register(service,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+        this.thread = new Thread(this::run, "Akashic Mine Type Watcher");
+        this.thread.setDaemon(true);
+    }
+
+    public static synchronized void start(Path mineDir) {
+        stop();
+        try {
+            running = new MineTypeWatcher(mineDir);
+            running.thread.start();
+        } catch (IOException e) {
+            AkashicRecords.LOGGER.warn("Could not watch {} for mine type changes", mineDir, e);
+        }
+    }
+
+    public static synchronized void stop() {
+        if (running == null) return;
+        try {
+            running.service.close();
+        } catch (IOException ignored) {
+        }
+        running.thread.interrupt();
+        running = null;
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean relevant = drain(key);
+                // Keep collecting until nothing has happened for a while
+                while ((key = service.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    relevant |= drain(key);
+                }
+                if (relevant) {
+                    MineTypeRegistry registry = MineConfig.reloadTypes();
+                    AkashicRecords.LOGGER.info("Reloaded {} mine types", registry.size());
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ignored) {
+            // Stopped
+        }
+    }
+
+    private static boolean drain(WatchKey key) {
+        boolean relevant = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW
+                    || event.context() instanceof Path path && path.toString().endsWith(".toml")) {
+                relevant = true;
+            }
+        }
+        key.reset();
+        return relevant;
+    }
+}
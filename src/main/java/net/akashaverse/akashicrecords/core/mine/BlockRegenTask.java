@@ -0,0 +1,53 @@
+package net.akashaverse.akashicrecords.core.mine;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link MineFillBackend#SET_BLOCK} regeneration.  The interior is walked one
+ * horizontal layer at a time in the requested {@link MineFillOrder} and every
+ * block is placed individually with neighbour updates.
+ */
+class BlockRegenTask extends MineRegenTask {
+    /** number of blocks written between two checks of the budget's deadline */
+    private static final int BATCH = 256;
+
+    private final int sizeX;
+    private final int sizeZ;
+    private final long total;
+    private long cursor;
+
+    BlockRegenTask(Mine mine, MineFillOrder order, MineRandom random, FillSource fallback,
+                   CompletableFuture<? extends FillSource> pendingSource) {
+        super(mine, order, random, fallback, pendingSource);
+        this.sizeX = Math.max(0, mine.max.getX() - mine.min.getX() - 1);
+        int sizeY = Math.max(0, mine.max.getY() - mine.min.getY());
+        this.sizeZ = Math.max(0, mine.max.getZ() - mine.min.getZ() - 1);
+        this.total = (long) sizeX * sizeY * sizeZ;
+        this.cursor = 0L;
+    }
+
+    @Override
+    protected boolean write(ServerLevel level, RegenBudget budget) {
+        long layerArea = (long) sizeX * sizeZ;
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+        while (cursor < total && !budget.exhausted()) {
+            long start = cursor;
+            long end = Math.min(total, cursor + Math.min(BATCH, budget.blocksRemaining()));
+            for (; cursor < end; cursor++) {
+                int layer = (int) (cursor / layerArea);
+                int rem = (int) (cursor % layerArea);
+                int y = order == MineFillOrder.TOP_DOWN
+                        ? mine.max.getY() - layer
+                        : mine.min.getY() + 1 + layer;
+                int x = mine.min.getX() + 1 + rem / sizeZ;
+                int z = mine.min.getZ() + 1 + rem % sizeZ;
+                place(level, pos.set(x, y, z), stateAt(x, y, z, random));
+            }
+            budget.consume(end - start);
+        }
+        return cursor >= total;
+    }
+}
@@ -0,0 +1,190 @@
+package net.akashaverse.akashicrecords.core.mine;
+
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A weighted block distribution compiled into an alias table (Vose's method).
+ * Block ids are resolved to {@link BlockState}s once when the sampler is built;
+ * afterwards {@link #sample(MineRandom)} picks a block in constant time from
+ * primitive arrays using a single random {@code long} and allocates nothing, and
+ * {@link #pickAll} picks a whole row from values drawn in one batch.
+ * <p>
+ * Weights are converted exactly as {@code SimpleWeightedRandomList} entries were
+ * before, i.e. {@code max(1, weight * 1000)}, so existing configs keep the same
+ * odds.
+ */
+public class BlockSampler {
+    private static final double SCALE = 2147483648.0; // 2^31
+
+    private final BlockState[] states;
+    /** column that is used when the coin flip for a column fails */
+    private final int[] alias;
+    /** probability of keeping a column, scaled to {@code [0, 2^31)} */
+    private final int[] threshold;
+
+    private BlockSampler(BlockState[] states, int[] alias, int[] threshold) {
+        this.states = states;
+        this.alias = alias;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Compiles a distribution.  An empty list yields a sampler that always returns stone.
+     */
+    public static BlockSampler compile(List<WeightedBlock> distribution) {
+        List<BlockState> states = new ArrayList<>(distribution.size());
+        double[] weights = new double[distribution.size()];
+        for (int i = 0; i < distribution.size(); i++) {
+            WeightedBlock wb = distribution.get(i);
+            states.add(resolve(wb.blockId()));
+            weights[i] = wb.weight();
+        }
+        return build(states, weights);
+    }
+
+    /**
+     * Compiles a distribution given as block id to weight, such as a blend of two layers.
+     */
+    public static BlockSampler compile(Map<String, Double> distribution) {
+        List<BlockState> states = new ArrayList<>(distribution.size());
+        double[] weights = new double[distribution.size()];
+        int i = 0;
+        for (Map.Entry<String, Double> entry : distribution.entrySet()) {
+            states.add(resolve(entry.getKey()));
+            weights[i++] = entry.getValue();
+        }
+        return build(states, weights);
+    }
+
+    /**
+     * Resolves a block id to its default state, falling back to stone for unknown
+     * or malformed ids.
+     */
+    static BlockState resolve(String blockId) {
+        Block block;
+        try {
+            var key = ResourceLocation.parse(blockId);
+            block = BuiltInRegistries.BLOCK.getOptional(key).orElse(Blocks.STONE);
+        } catch (Exception ex) {
+            block = Blocks.STONE;
+        }
+        return block.defaultBlockState();
+    }
+
+    /**
+     * The weight an entry actually gets in the table, see the class description.
+     */
+    static double scaledWeight(double weight) {
+        return (int) Math.max(1, weight * 1000.0);
+    }
+
+    private static BlockSampler build(List<BlockState> states, double[] rawWeights) {
+        int n = states.size();
+        if (n == 0) {
+            return new BlockSampler(new BlockState[]{Blocks.STONE.defaultBlockState()}, new int[]{0}, new int[]{Integer.MAX_VALUE});
+        }
+        double total = 0.0;
+        double[] scaled = new double[n];
+        for (int i = 0; i < n; i++) {
+            scaled[i] = scaledWeight(rawWeights[i]);
+            total += scaled[i];
+        }
+        for (int i = 0; i < n; i++) {
+            scaled[i] = scaled[i] * n / total;
+        }
+
+        int[] alias = new int[n];
+        int[] threshold = new int[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            int s = small[--smallCount];
+            int l = large[--largeCount];
+            threshold[s] = (int) (scaled[s] * SCALE);
+            alias[s] = l;
+            scaled[l] = (scaled[l] + scaled[s]) - 1.0;
+            if (scaled[l] < 1.0) {
+                small[smallCount++] = l;
+            } else {
+                large[largeCount++] = l;
+            }
+        }
+        // whatever is left has probability 1 up to rounding error
+        while (largeCount > 0) {
+            int l = large[--largeCount];
+            threshold[l] = Integer.MAX_VALUE;
+            alias[l] = l;
+        }
+        while (smallCount > 0) {
+            int s = small[--smallCount];
+            threshold[s] = Integer.MAX_VALUE;
+            alias[s] = s;
+        }
+        return new BlockSampler(states.toArray(new BlockState[0]), alias, threshold);
+    }
+
+    public BlockState sample(RandomSource random) {
+        return pick(random.nextLong());
+    }
+
+    public BlockState sample(MineRandom random) {
+        return pick(random.nextLong());
+    }
+
+    /**
+     * Picks {@code count} blocks from {@code bits[0..count)} into {@code out}, starting
+     * at {@code offset}.
+     */
+    public void pickAll(long[] bits, int count, BlockState[] out, int offset) {
+        BlockState[] states = this.states;
+        int[] alias = this.alias;
+        int[] threshold = this.threshold;
+        int columns = states.length;
+        for (int i = 0; i < count; i++) {
+            long b = bits[i];
+            int column = (int) (((b >>> 32) * columns) >>> 32);
+            out[offset + i] = ((int) b & 0x7FFFFFFF) < threshold[column] ? states[column] : states[alias[column]];
+        }
+    }
+
+    /**
+     * Picks a block from 64 random bits: the upper half selects a column, the lower
+     * half decides between the column and its alias.
+     */
+    public BlockState pick(long bits) {
+        int column = (int) (((bits >>> 32) * states.length) >>> 32);
+        return ((int) bits & 0x7FFFFFFF) < threshold[column] ? states[column] : states[alias[column]];
+    }
+
+    /**
+     * Number of distinct entries in the table.
+     */
+    public int size() {
+        return states.length;
+    }
+
+    /**
+     * The state of entry {@code index}, for {@code 0 <= index < size()}.
+     */
+    public BlockState state(int index) {
+        return states[index];
+    }
+}
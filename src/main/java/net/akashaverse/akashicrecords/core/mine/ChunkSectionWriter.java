@@ -0,0 +1,160 @@
+package net.akashaverse.akashicrecords.core.mine;
+
+import it.unimi.dsi.fastutil.shorts.ShortSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.ai.village.poi.PoiTypes;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.levelgen.Heightmap;
+import net.minecraft.world.level.lighting.LevelLightEngine;
+import net.minecraft.world.level.lighting.LightEngine;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes whole {@link MineTile}s straight into the palettes of the chunk sections
+ * they belong to.  Unlike {@code setBlockAndUpdate} this does not run neighbour
+ * updates or send a packet per block: each section is locked once and written in its
+ * native y, z, x order, each touched chunk is marked dirty, and the changed positions
+ * are recorded in a {@link MineSyncBatch} for {@link MineClientSync} to send later.
+ * <p>
+ * Blocks that carry a block entity or a point of interest are not written in bulk;
+ * they are collected and placed through {@code setBlockAndUpdate} in {@link #finish()}
+ * so that the block entity and POI bookkeeping stays correct.
+ */
+public class ChunkSectionWriter {
+    private final ServerLevel level;
+    private final LevelLightEngine lightEngine;
+    private final MineSyncBatch sync;
+    private final MineSyncBatch deferredLight;
+    private final List<BlockPos> deferredPositions = new ArrayList<>();
+    private final List<BlockState> deferredStates = new ArrayList<>();
+    private final BlockPos.MutableBlockPos cursor = new BlockPos.MutableBlockPos();
+
+    public ChunkSectionWriter(ServerLevel level, MineSyncBatch sync) {
+        this(level, sync, null);
+    }
+
+    /**
+     * @param deferredLight if not null, positions whose light changed are collected here for
+     *                      a {@link MineRelighter} instead of being checked one by one
+     */
+    public ChunkSectionWriter(ServerLevel level, MineSyncBatch sync, @Nullable MineSyncBatch deferredLight) {
+        this.level = level;
+        this.sync = sync;
+        this.deferredLight = deferredLight;
+        this.lightEngine = level.getChunkSource().getLightEngine();
+    }
+
+    /**
+     * Writes {@code states}, laid out in {@link MineTile#index(int, int, int)} order,
+     * into the section covered by {@code tile}.  Tiles outside the build height are
+     * ignored.
+     */
+    public void write(MineTile tile, BlockState[] states) {
+        LevelChunk chunk = level.getChunk(tile.sectionX(), tile.sectionZ());
+        int sectionIndex = chunk.getSectionIndexFromSectionY(tile.sectionY());
+        if (sectionIndex < 0 || sectionIndex >= chunk.getSectionsCount()) {
+            return;
+        }
+        LevelChunkSection section = chunk.getSection(sectionIndex);
+        boolean wasEmpty = section.hasOnlyAir();
+        boolean changed = false;
+        ShortSet synced = null;
+        ShortSet unlit = null;
+
+        section.acquire();
+        try {
+            int i = 0;
+            for (int y = tile.minY(); y <= tile.maxY(); y++) {
+                for (int z = tile.minZ(); z <= tile.maxZ(); z++) {
+                    for (int x = tile.minX(); x <= tile.maxX(); x++) {
+                        BlockState state = states[i++];
+                        BlockState old = section.getBlockState(x & 15, y & 15, z & 15);
+                        if (old == state) {
+                            continue;
+                        }
+                        if (needsFullUpdate(old, state)) {
+                            deferredPositions.add(new BlockPos(x, y, z));
+                            deferredStates.add(state);
+                            continue;
+                        }
+                        section.setBlockState(x & 15, y & 15, z & 15, state, false);
+                        changed = true;
+                        if (synced == null) {
+                            synced = sync.section(SectionPos.asLong(tile.sectionX(), tile.sectionY(), tile.sectionZ()));
+                        }
+                        synced.add((short) ((x & 15) << 8 | (z & 15) << 4 | y & 15));
+                        cursor.set(x, y, z);
+                        if (LightEngine.hasDifferentLightProperties(chunk, cursor, old, state)) {
+                            chunk.getSkyLightSources().update(chunk, x & 15, y, z & 15);
+                            if (deferredLight == null) {
+                                lightEngine.checkBlock(cursor);
+                            } else {
+                                if (unlit == null) {
+                                    unlit = deferredLight.section(SectionPos.asLong(tile.sectionX(), tile.sectionY(), tile.sectionZ()));
+                                }
+                                unlit.add(SectionPos.sectionRelativePos(cursor));
+                            }
+                        }
+                    }
+                }
+            }
+        } finally {
+            section.release();
+        }
+        if (!changed) {
+            return;
+        }
+
+        boolean isEmpty = section.hasOnlyAir();
+        if (wasEmpty != isEmpty) {
+            lightEngine.updateSectionStatus(SectionPos.of(tile.sectionX(), tile.sectionY(), tile.sectionZ()), isEmpty);
+        }
+        updateHeightmaps(chunk, section, tile);
+        chunk.setUnsaved(true);
+    }
+
+    /**
+     * Places the deferred blocks.  These go through {@code setBlockAndUpdate} so that
+     * their block entities reach the clients as usual.
+     */
+    public void finish() {
+        for (int i = 0; i < deferredPositions.size(); i++) {
+            level.setBlockAndUpdate(deferredPositions.get(i), deferredStates.get(i));
+        }
+        deferredPositions.clear();
+        deferredStates.clear();
+    }
+
+    /**
+     * Feeds each column of the tile to the chunk heightmaps from the top down, stopping
+     * as soon as the remaining blocks are below the current height.
+     */
+    private static void updateHeightmaps(LevelChunk chunk, LevelChunkSection section, MineTile tile) {
+        for (Map.Entry<Heightmap.Types, Heightmap> entry : chunk.getHeightmaps()) {
+            Heightmap heightmap = entry.getValue();
+            for (int z = tile.minZ(); z <= tile.maxZ(); z++) {
+                for (int x = tile.minX(); x <= tile.maxX(); x++) {
+                    for (int y = tile.maxY(); y >= tile.minY(); y--) {
+                        if (y <= heightmap.getFirstAvailable(x & 15, z & 15) - 2) {
+                            break;
+                        }
+                        heightmap.update(x & 15, y, z & 15, section.getBlockState(x & 15, y & 15, z & 15));
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean needsFullUpdate(BlockState old, BlockState state) {
+        return old.hasBlockEntity() || state.hasBlockEntity()
+                || PoiTypes.forState(old).isPresent() || PoiTypes.forState(state).isPresent();
+    }
+}
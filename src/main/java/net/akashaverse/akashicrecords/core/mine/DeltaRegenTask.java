@@ -0,0 +1,48 @@
+package net.akashaverse.akashicrecords.core.mine;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+
+import java.util.BitSet;
+
+/**
+ * {@link MineResetMode#DELTA} regeneration.  Only the positions recorded in a
+ * {@link MineChangeSet} are refilled, block by block; a delta is usually sparse
+ * enough that writing whole sections would not pay off.
+ */
+class DeltaRegenTask extends MineRegenTask {
+    /** number of blocks written between two checks of the budget's deadline */
+    private static final int BATCH = 256;
+
+    private final MineChangeSet layout;
+    private final BitSet changed;
+    private int cursor;
+
+    DeltaRegenTask(Mine mine, MineFillOrder order, MineRandom random, FillSource source,
+                   MineChangeSet layout, BitSet changed) {
+        super(mine, order, random, source, null);
+        this.layout = layout;
+        this.changed = changed;
+        this.cursor = order == MineFillOrder.TOP_DOWN ? changed.length() - 1 : changed.nextSetBit(0);
+    }
+
+    @Override
+    protected boolean write(ServerLevel level, RegenBudget budget) {
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+        while (cursor >= 0 && !budget.exhausted()) {
+            long batch = Math.min(BATCH, budget.blocksRemaining());
+            long written = 0;
+            for (; cursor >= 0 && written < batch; written++) {
+                int x = layout.x(cursor);
+                int y = layout.y(cursor);
+                int z = layout.z(cursor);
+                place(level, pos.set(x, y, z), stateAt(x, y, z, random));
+                cursor = order == MineFillOrder.TOP_DOWN
+                        ? changed.previousSetBit(cursor - 1)
+                        : changed.nextSetBit(cursor + 1);
+            }
+            budget.consume(written);
+        }
+        return cursor < 0;
+    }
+}
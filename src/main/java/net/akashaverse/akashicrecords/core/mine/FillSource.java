@@ -0,0 +1,91 @@
+package net.akashaverse.akashicrecords.core.mine;
+
+import net.minecraft.world.level.block.state.BlockState;
+
+/**
+ * Where a regeneration gets its blocks from: sampled on the fly, sampled into
+ * noise‑shaped veins, a precomputed {@link MineFillPlan}, or a stored
+ * {@link PackedFillPattern}.  Positions are
+ * world coordinates inside the mine's interior.
+ */
+interface FillSource {
+    /**
+     * The block for a single interior position.
+     */
+    BlockState stateAt(int x, int y, int z, MineRandom random);
+
+    /**
+     * The blocks for a whole tile in {@link MineTile#index(int, int, int)} order.
+     * Implementations may fill and return {@code buffer} or return an array of
+     * their own that the caller must not modify.
+     */
+    BlockState[] tileStates(MineTile tile, BlockState[] buffer, MineRandom random);
+
+    /**
+     * Samples directly from the compiled per‑layer samplers of a mine.
+     */
+    static FillSource sampled(BlockSampler[] samplers, int baseY) {
+        return new FillSource() {
+            @Override
+            public BlockState stateAt(int x, int y, int z, MineRandom random) {
+                return samplers[y - baseY].sample(random);
+            }
+
+            /** one row of random values, reused by every tile */
+            private final long[] bits = new long[16 * 16];
+
+            @Override
+            public BlockState[] tileStates(MineTile tile, BlockState[] buffer, MineRandom random) {
+                int area = tile.sizeX() * tile.sizeZ();
+                int i = 0;
+                for (int y = tile.minY(); y <= tile.maxY(); y++) {
+                    random.fill(bits, area);
+                    samplers[y - baseY].pickAll(bits, area, buffer, i);
+                    i += area;
+                }
+                return buffer;
+            }
+        };
+    }
+
+    /**
+     * Places ore veins by thresholding {@code noise}: where it exceeds the layer's
+     * threshold the block is an ore, the same one for a whole noise cell, and
+     * elsewhere a host block is sampled as usual.  The thresholds keep each layer's
+     * ore share, so only the arrangement differs from {@link #sampled}.
+     */
+    static FillSource veins(MineVeinProfile profile, int baseY, VeinNoise noise) {
+        return new FillSource() {
+            @Override
+            public BlockState stateAt(int x, int y, int z, MineRandom random) {
+                int layer = y - baseY;
+                if (noise.sample(x, y, z) > profile.thresholds()[layer]) {
+                    return profile.ores()[layer].pick(noise.cell(x, y, z));
+                }
+                return profile.hosts()[layer].sample(random);
+            }
+
+            /** noise values of one tile, reused by every tile */
+            private final float[] values = new float[16 * 16 * 16];
+
+            @Override
+            public BlockState[] tileStates(MineTile tile, BlockState[] buffer, MineRandom random) {
+                noise.fill(tile, values);
+                int i = 0;
+                for (int y = tile.minY(); y <= tile.maxY(); y++) {
+                    int layer = y - baseY;
+                    float threshold = profile.thresholds()[layer];
+                    BlockSampler hosts = profile.hosts()[layer];
+                    BlockSampler ores = profile.ores()[layer];
+                    for (int z = tile.minZ(); z <= tile.maxZ(); z++) {
+                        for (int x = tile.minX(); x <= tile.maxX(); x++) {
+                            buffer[i] = values[i] > threshold ? ores.pick(noise.cell(x, y, z)) : hosts.sample(random);
+                            i++;
+                        }
+                    }
+                }
+                return buffer;
+            }
+        };
+    }
+}
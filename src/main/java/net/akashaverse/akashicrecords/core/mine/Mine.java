@@ -1,21 +1,25 @@
 package net.akashaverse.akashicrecords.core.mine;
 
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.akashaverse.akashicrecords.AkashicRecords;
+import net.akashaverse.akashicrecords.core.mine.metrics.MineMetrics;
+import net.akashaverse.akashicrecords.core.mine.metrics.MineStats;
 import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.level.ServerLevel;
-import net.minecraft.util.RandomSource;
-import net.minecraft.util.random.SimpleWeightedRandomList;
-import net.minecraft.world.level.block.Block;
-import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.block.state.BlockState;
-import net.minecraft.core.registries.BuiltInRegistries;
-import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.function.BiConsumer;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Represents a single auto‑refilling mine.  A mine is defined by two corners
@@ -32,13 +36,13 @@ public class Mine {
     /** maximum corner of the cuboid (inclusive) */
     public final BlockPos max;
     /** entrance used to teleport players out before regeneration */
-    public BlockPos entrance;
+    private BlockPos entrance;
     /** weighted distribution of blocks inside the mine */
     public final List<WeightedBlock> distribution = new ArrayList<>();
     /** optional layered distributions used for vertical mixing */
     public final List<MineLayer> layers;
     /** game time (ticks) when the next reset will occur */
-    public long nextReset;
+    private long nextReset;
     /** number of ticks between resets */
     public final int refillIntervalTicks;
     /** number of ticks before reset to warn players */
@@ -51,7 +55,45 @@ public class Mine {
      * Subsequent regenerations will leave the border in place and only
      * refill the interior.
      */
-    public boolean borderBuilt;
+    private boolean borderBuilt;
+    /** structure template repeated across the interior instead of sampling, see {@link MineTemplates} */
+    private @Nullable ResourceLocation template;
+    /** approximate ore vein size in blocks, or 0 to scatter ores, see {@link FillSource#veins} */
+    private int veinSize;
+    /** seed of the most recent regeneration, see {@link MineRandom} */
+    private long lastSeed;
+    /** regeneration, warning and eviction figures, see {@link MineMetrics} */
+    public final MineStats stats = new MineStats();
+    /** incremented whenever the mine's deadlines are queued again, see {@link MineScheduler} */
+    int scheduleToken;
+    /** in‑progress time‑sliced regeneration, or null when the mine is idle */
+    private MineRegenTask regenTask;
+    /** compiled per‑layer samplers, shared with other mines, see {@link MineLayerProfiles} */
+    private BlockSampler[] samplers;
+    /** copy of {@link #distribution} that {@link #samplers} were compiled from */
+    private List<WeightedBlock> samplersSource;
+    /** pre‑generated fills, see {@link #beginVariantRegeneration} */
+    private MineFillVariants fillVariants;
+    private CompletableFuture<MineFillVariants> pendingVariants;
+    /** positions changed since the last full reset, or null while they are unknown */
+    private MineChangeSet changes;
+    /** delta or skipped resets since the last full one, see {@link #needsFullReset} */
+    private int partialResets;
+    /** chunks whose part of the interior a lazy reset has not refilled yet, or null */
+    private LongSet pendingChunks;
+    /** the pending chunk whose refill is in progress, or null */
+    private ChunkRefill chunkRefill;
+    /** border faces and the verifier's position on them, created on first use */
+    private MineBorder border;
+    /** seed the next regeneration uses instead of deriving one from {@link #lastSeed}, or null */
+    private Long pinnedSeed;
+    /** view of {@link #template}'s pattern, or null while the template is not loaded */
+    private FillSource templateSource;
+    /** next fill planned during the warning countdown, see {@link #prepareNextFill()} */
+    private PreparedFill prepared;
+
+    /** a background plan together with the seed and profile it was made from */
+    private record PreparedFill(long seed, BlockSampler[] samplers, CompletableFuture<MineFillPlan> plan) {}
 
     /**
      * Construct a mine with a single distribution (no layering).
@@ -98,109 +140,568 @@ public class Mine {
                 && pos.getZ() >= min.getZ() && pos.getZ() <= max.getZ();
     }
 
+    /**
+     * Returns true while a time‑sliced regeneration started by
+     * {@link #beginRegeneration(MineFillOrder, MineFillBackend)} has not finished yet.
+     */
+    public boolean isRegenerating() {
+        return regenTask != null;
+    }
+
+    /*
+     * The settings below are changed through the MineManager, which saves and
+     * publishes them; the setters are only for it and the codec.
+     */
+
+    public BlockPos entrance() {
+        return entrance;
+    }
+
+    void setEntrance(BlockPos entrance) {
+        this.entrance = entrance;
+    }
+
+    public long nextReset() {
+        return nextReset;
+    }
+
+    void setNextReset(long nextReset) {
+        this.nextReset = nextReset;
+    }
+
+    public boolean isBorderBuilt() {
+        return borderBuilt;
+    }
+
+    void setBorderBuilt(boolean borderBuilt) {
+        this.borderBuilt = borderBuilt;
+    }
+
+    public @Nullable ResourceLocation template() {
+        return template;
+    }
+
+    void setTemplate(@Nullable ResourceLocation template) {
+        this.template = template;
+    }
+
+    public int veinSize() {
+        return veinSize;
+    }
+
+    void setVeinSize(int veinSize) {
+        this.veinSize = veinSize;
+    }
+
+    public long lastSeed() {
+        return lastSeed;
+    }
+
+    void setLastSeed(long lastSeed) {
+        this.lastSeed = lastSeed;
+    }
+
     /**
      * Rebuilds the border (if not yet built) and fills the interior with randomly selected blocks
-     * according to either the default distribution or a blended layered distribution.  After
-     * regeneration the next reset time is scheduled.
+     * according to either the default distribution or a blended layered distribution.  The
+     * next reset time is left to the caller, see {@link MineManager#scheduleNextReset}.  The whole mine is written within the
+     * current tick; use {@link #beginRegeneration(MineFillOrder, MineFillBackend)} to spread the work out.
      */
     public void regenerate(ServerLevel level) {
-        RandomSource random = level.random;
-
-        Map<Integer, SimpleWeightedRandomList<BlockState>> layerDistributions = null;
-        if (layers != null && !layers.isEmpty()) {
-            layerDistributions = new HashMap<>();
-            int layerCount = layers.size();
-            for (int y = min.getY() + 1; y <= max.getY(); y++) {
-                SimpleWeightedRandomList.Builder<BlockState> builder = getBlockStateBuilder(y, layerCount);
-                layerDistributions.put(y, builder.build());
-            }
+        regenerate(level, MineFillBackend.SET_BLOCK);
+    }
+
+    /**
+     * Regenerates the whole mine within the current tick using the given backend.
+     */
+    public void regenerate(ServerLevel level, MineFillBackend backend) {
+        if (!beginPreparedRegeneration(MineFillOrder.TOP_DOWN, backend, true)) {
+            beginRegeneration(MineFillOrder.TOP_DOWN, backend);
         }
+        continueRegeneration(level, RegenBudget.unlimited());
+    }
 
-        for (int x = min.getX() + 1; x < max.getX(); x++) {
-            for (int y = min.getY() + 1; y <= max.getY(); y++) {
-                for (int z = min.getZ() + 1; z < max.getZ(); z++) {
-                    BlockPos p = new BlockPos(x, y, z);
-                    SimpleWeightedRandomList<BlockState> weightedList;
-                    if (layerDistributions != null) {
-                        weightedList = layerDistributions.get(y);
-                    } else {
-                        weightedList = null;
-                    }
-                    BlockState state;
-                    if (weightedList != null) {
-                        state = weightedList.getRandomValue(random).orElse(Blocks.STONE.defaultBlockState());
-                    } else {
-                        if (distribution.isEmpty()) {
-                            state = Blocks.STONE.defaultBlockState();
-                        } else {
-                            SimpleWeightedRandomList.Builder<BlockState> builder = SimpleWeightedRandomList.builder();
-                            for (WeightedBlock wb : distribution) {
-                                Block block;
-                                try {
-                                    var key = net.minecraft.resources.ResourceLocation.parse(wb.blockId());
-                                    block = BuiltInRegistries.BLOCK.getOptional(key).orElse(Blocks.STONE);
-                                } catch (Exception ex) {
-                                    block = Blocks.STONE;
-                                }
-                                builder.add(block.defaultBlockState(), (int) Math.max(1, wb.weight() * 1000.0));
-                            }
-                            weightedList = builder.build();
-                            layerDistributions = new HashMap<>();
-                            for (int yy = min.getY() + 1; yy <= max.getY(); yy++) {
-                                layerDistributions.put(yy, weightedList);
-                            }
-                            state = weightedList.getRandomValue(random).orElse(Blocks.STONE.defaultBlockState());
-                        }
-                    }
-                    level.setBlockAndUpdate(p, state);
-                }
+    /**
+     * Starts a time‑sliced regeneration.  The interior is not touched until
+     * {@link #continueRegeneration(ServerLevel, RegenBudget)} is called; any regeneration
+     * that is already in progress is restarted.
+     */
+    public void beginRegeneration(MineFillOrder order, MineFillBackend backend) {
+        MineRandom random = nextRandom();
+        this.regenTask = MineRegenTask.create(this, order, backend, random, sampledSource(random), null);
+        startFullRegeneration();
+    }
+
+    /**
+     * Starts a time‑sliced regeneration whose blocks are chosen in parallel by
+     * {@link MineFillPlanner} from the regeneration's seed.  Nothing is written until the
+     * plan is complete; the server thread only applies it.
+     */
+    public void beginPlannedRegeneration(MineFillOrder order, MineFillBackend backend) {
+        MineRandom random = nextRandom();
+        this.regenTask = MineRegenTask.create(this, order, backend, random, sampledSource(random),
+                MineFillPlanner.plan(this, random.seed()));
+        startFullRegeneration();
+    }
+
+    /**
+     * Starts a time‑sliced regeneration that copies the next of {@code count} pre‑generated
+     * fill variants instead of sampling.  If the variants are not ready yet (or the
+     * distribution changed since they were made) they are generated in the background and
+     * false is returned; the caller should then start an ordinary regeneration.
+     *
+     * @param storageDir directory for memory‑mapped variant files, or null to keep them on the heap
+     */
+    public boolean beginVariantRegeneration(MineFillOrder order, MineFillBackend backend, int count, long seed,
+                                            @Nullable Path storageDir) {
+        BlockSampler[] compiled = compiledSamplers();
+        if (pendingVariants != null && pendingVariants.isDone()) {
+            try {
+                fillVariants = pendingVariants.join();
+            } catch (CompletionException | CancellationException ex) {
+                AkashicRecords.LOGGER.error("Generating fill variants for a mine failed", ex);
             }
+            pendingVariants = null;
         }
+        if (fillVariants != null && !fillVariants.matches(compiled, count)) {
+            fillVariants = null;
+        }
+        if (fillVariants == null) {
+            if (pendingVariants == null) {
+                pendingVariants = MineFillVariants.generate(this, compiled, count, seed, storageDir);
+            }
+            return false;
+        }
+        this.regenTask = MineRegenTask.create(this, order, backend, nextRandom(), fillVariants.next(), null);
+        startFullRegeneration();
+        return true;
+    }
+
+    /**
+     * Starts planning the next regeneration in the background, e.g. when its warning
+     * goes out, so that the reset itself only has to apply the plan.  The plan uses
+     * the seed the next regeneration will get and the current layer profile; if
+     * either has changed by the time the reset starts, it is discarded.  Does nothing
+     * for templates and vein fills, which have nothing to plan.
+     */
+    public void prepareNextFill() {
+        if (hasStructuredFill()) {
+            discardPreparedFill();
+            return;
+        }
+        long seed = peekSeed();
+        BlockSampler[] compiled = compiledSamplers();
+        if (prepared != null && prepared.seed() == seed && prepared.samplers() == compiled) {
+            return;
+        }
+        discardPreparedFill();
+        this.prepared = new PreparedFill(seed, compiled, MineFillPlanner.plan(compiled, this, seed));
+    }
+
+    /**
+     * Starts a time‑sliced regeneration that applies the fill prepared by
+     * {@link #prepareNextFill()}.  A stale preparation, made for another seed or
+     * profile, is dropped and false is returned, as it is when there is none; the
+     * caller should then start an ordinary regeneration.
+     *
+     * @param requireComplete if true, a preparation that is still being planned is
+     *                        dropped too, for callers that cannot wait for it
+     */
+    public boolean beginPreparedRegeneration(MineFillOrder order, MineFillBackend backend, boolean requireComplete) {
+        PreparedFill fill = prepared;
+        if (fill == null) {
+            return false;
+        }
+        this.prepared = null;
+        if (hasStructuredFill() || fill.seed() != peekSeed() || fill.samplers() != compiledSamplers()
+                || requireComplete && !fill.plan().isDone()) {
+            fill.plan().cancel(false);
+            stats.discardedPreparations++;
+            return false;
+        }
+        MineRandom random = nextRandom();
+        this.regenTask = MineRegenTask.create(this, order, backend, random,
+                FillSource.sampled(fill.samplers(), min.getY() + 1), fill.plan());
+        startFullRegeneration();
+        stats.preparedResets++;
+        return true;
+    }
+
+    /**
+     * Drops the prepared fill, if any, e.g. because the mine's definition changed.
+     */
+    public void discardPreparedFill() {
+        if (prepared != null) {
+            prepared.plan().cancel(false);
+            this.prepared = null;
+            stats.discardedPreparations++;
+        }
+    }
+
+    public boolean hasPreparedFill() {
+        return prepared != null;
+    }
+
+    private MineBorder border() {
+        if (border == null) {
+            border = new MineBorder(min, max);
+        }
+        return border;
+    }
+
+    /**
+     * Checks up to {@code budget} border positions, continuing where the last call
+     * stopped, and repairs the ones that no longer hold {@link #borderBlock}.  Does
+     * nothing until the border has been built.
+     *
+     * @return the part of the budget used
+     */
+    public int verifyBorder(ServerLevel level, int budget) {
         if (!borderBuilt) {
-            for (int x = min.getX(); x <= max.getX(); x++) {
-                for (int y = min.getY(); y <= max.getY(); y++) {
-                    for (int z = min.getZ(); z <= max.getZ(); z++) {
-                        boolean onBorder = x == min.getX() || x == max.getX()
-                                || y == min.getY()
-                                || z == min.getZ() || z == max.getZ();
-                        if (onBorder) {
-                            level.setBlockAndUpdate(new BlockPos(x, y, z), borderBlock);
-                        }
-                    }
+            return 0;
+        }
+        return border().verify(level, borderBlock, budget, stats);
+    }
+
+    /**
+     * Returns true when {@link #verifyBorder} is at the start of a pass over the border.
+     */
+    public boolean borderPassComplete() {
+        return border == null || border.atStart();
+    }
+
+    /**
+     * Makes the next regeneration use {@code seed}, e.g. to repeat the one that
+     * {@link #lastSeed} recorded.
+     */
+    public void pinNextSeed(long seed) {
+        this.pinnedSeed = seed;
+    }
+
+    /**
+     * Returns true if the next regeneration repeats a seed given by {@link #pinNextSeed}.
+     */
+    public boolean hasPinnedSeed() {
+        return pinnedSeed != null;
+    }
+
+    /**
+     * The generator for a regeneration that is starting.  Its seed is the pinned one
+     * if any, otherwise derived from the previous seed and the mine's bounds, and is
+     * recorded in {@link #lastSeed}.
+     */
+    private MineRandom nextRandom() {
+        long seed = peekSeed();
+        this.pinnedSeed = null;
+        this.lastSeed = seed;
+        return new MineRandom(seed);
+    }
+
+    /**
+     * The seed {@link #nextRandom()} will return, without consuming it.
+     */
+    private long peekSeed() {
+        return pinnedSeed != null
+                ? pinnedSeed
+                : HashCommon.murmurHash3(lastSeed + min.asLong() * 31 + max.asLong() + 1);
+    }
+
+    private void startFullRegeneration() {
+        this.changes = new MineChangeSet(this);
+        this.partialResets = 0;
+        this.pendingChunks = null;
+        this.chunkRefill = null;
+        stats.regenStarted();
+    }
+
+    /**
+     * The game time of the reset following one at {@code gameTime}: one refill interval
+     * later, plus a jitter of up to {@code jitterPercent} of the interval.  The jitter is
+     * derived from the mine's bounds and the interval count, so mines created together
+     * drift apart but a given mine always gets the same schedule.
+     */
+    public long nextResetAfter(long gameTime, int jitterPercent) {
+        long spread = (long) refillIntervalTicks * jitterPercent / 100;
+        if (spread <= 0) {
+            return gameTime + refillIntervalTicks;
+        }
+        long cycle = gameTime / Math.max(1, refillIntervalTicks);
+        long hash = HashCommon.murmurHash3(min.asLong() * 31 + max.asLong() + cycle);
+        return gameTime + refillIntervalTicks + Math.floorMod(hash, spread);
+    }
+
+    /**
+     * Returns true if any chunk overlapped by this mine is loaded.
+     */
+    public boolean hasLoadedChunk(ServerLevel level) {
+        int minChunkX = SectionPos.blockToSectionCoord(min.getX());
+        int maxChunkX = SectionPos.blockToSectionCoord(max.getX());
+        int minChunkZ = SectionPos.blockToSectionCoord(min.getZ());
+        int maxChunkZ = SectionPos.blockToSectionCoord(max.getZ());
+        for (int cx = minChunkX; cx <= maxChunkX; cx++) {
+            for (int cz = minChunkZ; cz <= maxChunkZ; cz++) {
+                if (level.getChunkSource().getChunkNow(cx, cz) != null) {
+                    return true;
                 }
             }
+        }
+        return false;
+    }
+
+    /**
+     * Turns a reset that came due while none of the mine's chunks were loaded into a
+     * pending one: each chunk is refilled by {@link #applyPendingChunk} when it next loads.
+     */
+    public void deferReset() {
+        LongSet chunks = new LongOpenHashSet();
+        MineSpatialIndex.forEachChunk(this, chunks::add);
+        this.pendingChunks = chunks;
+        this.chunkRefill = null;
+        // each chunk derives its generator from this seed, see applyPendingChunk
+        discardPreparedFill();
+        nextRandom();
+        // nothing can change while unloaded and every chunk will be refilled
+        this.changes = new MineChangeSet(this);
+        this.partialResets = 0;
+    }
+
+    /**
+     * Returns true while some chunk still waits for the refill of a lazy reset.
+     */
+    public boolean hasPendingReset() {
+        return pendingChunks != null;
+    }
+
+    boolean isPendingChunk(int chunkX, int chunkZ) {
+        return pendingChunks != null && pendingChunks.contains(ChunkPos.asLong(chunkX, chunkZ));
+    }
+
+    long[] pendingChunks() {
+        return pendingChunks == null ? new long[0] : pendingChunks.toLongArray();
+    }
+
+    void setPendingChunks(long[] chunks) {
+        this.pendingChunks = chunks.length == 0 ? null : new LongOpenHashSet(chunks);
+    }
+
+    /**
+     * Returns true if the refill of the given chunk has started but not finished.
+     */
+    boolean isRefillingChunk(long chunk) {
+        return chunkRefill != null && chunkRefill.chunk == chunk;
+    }
+
+    /**
+     * Refills the part of the interior inside the given loaded chunk through the
+     * section writer, if a lazy reset is pending for it.  The chunk is written one
+     * section tile at a time within {@code budget}; it stays pending until its last
+     * tile is written and the next call carries on where this one stopped.  A chunk
+     * that is left unfinished for another one starts over when it is refilled again,
+     * with the same generator, so the result is the same.
+     *
+     * @return true once the chunk has nothing left to refill
+     */
+    boolean applyPendingChunk(ServerLevel level, int chunkX, int chunkZ, MineSyncBatch sync, RegenBudget budget) {
+        long chunk = ChunkPos.asLong(chunkX, chunkZ);
+        if (!isPendingChunk(chunkX, chunkZ)) {
+            return true;
+        }
+        if (!isRefillingChunk(chunk)) {
+            int chunkMinX = SectionPos.sectionToBlockCoord(chunkX);
+            int chunkMinZ = SectionPos.sectionToBlockCoord(chunkZ);
+            List<MineTile> tiles = MineTile.split(
+                    Math.max(min.getX() + 1, chunkMinX), min.getY() + 1, Math.max(min.getZ() + 1, chunkMinZ),
+                    Math.min(max.getX() - 1, chunkMinX + 15), max.getY(), Math.min(max.getZ() - 1, chunkMinZ + 15),
+                    MineFillOrder.TOP_DOWN);
+            MineRandom random = MineRandom.derive(lastSeed, chunk);
+            this.chunkRefill = new ChunkRefill(chunk, tiles, random, sampledSource(random));
+        }
+        ChunkRefill refill = chunkRefill;
+        long start = System.nanoTime();
+        ChunkSectionWriter writer = new ChunkSectionWriter(level, sync);
+        int written = 0;
+        while (refill.cursor < refill.tiles.size() && !budget.exhausted()) {
+            MineTile tile = refill.tiles.get(refill.cursor++);
+            writer.write(tile, refill.source.tileStates(tile, refill.buffer, refill.random));
+            budget.consume(tile.volume());
+            written += tile.volume();
+        }
+        writer.finish();
+        stats.blocksWritten(System.nanoTime() - start, written);
+        if (refill.cursor < refill.tiles.size()) {
+            return false;
+        }
+        this.chunkRefill = null;
+        pendingChunks.remove(chunk);
+        if (pendingChunks.isEmpty()) {
+            pendingChunks = null;
+        }
+        return true;
+    }
+
+    /** the chunk of a lazy reset whose refill is in progress, see {@link #applyPendingChunk} */
+    private static final class ChunkRefill {
+        final long chunk;
+        final List<MineTile> tiles;
+        final MineRandom random;
+        final FillSource source;
+        final BlockState[] buffer = new BlockState[16 * 16 * 16];
+        int cursor;
+
+        ChunkRefill(long chunk, List<MineTile> tiles, MineRandom random, FillSource source) {
+            this.chunk = chunk;
+            this.tiles = tiles;
+            this.random = random;
+            this.source = source;
+        }
+    }
+
+    /**
+     * Starts a time‑sliced regeneration that only refills the positions changed since the
+     * last reset, see {@link MineResetMode#DELTA}.  Changes made while it runs are kept
+     * for the next reset.  Only valid while {@link #tracksChanges()} is true.
+     */
+    public void beginDeltaRegeneration(MineFillOrder order) {
+        // a fill prepared during the warning covers the whole mine, it is not used
+        discardPreparedFill();
+        partialResets++;
+        MineRandom random = nextRandom();
+        this.regenTask = new DeltaRegenTask(this, order, random, sampledSource(random), changes, changes.drain());
+        stats.regenStarted();
+    }
+
+    /**
+     * Records that the block at {@code pos} was changed by something other than a reset.
+     */
+    public void markChanged(BlockPos pos) {
+        if (changes != null) {
+            changes.mark(pos);
+        }
+    }
+
+    /**
+     * Returns true if every change since the last full reset is known, which is the case
+     * once the mine has been fully regenerated since it was created or loaded.
+     */
+    public boolean tracksChanges() {
+        return changes != null && borderBuilt && pendingChunks == null;
+    }
+
+    /**
+     * Returns true once {@code fullEvery} resets in a row were delta or skipped, so the
+     * next one refills the whole interior and catches the changes that are not tracked.
+     * 0 never forces one.
+     */
+    public boolean needsFullReset(int fullEvery) {
+        return fullEvery > 0 && partialResets >= fullEvery;
+    }
+
+    /**
+     * Counts a delta reset that was skipped because nothing changed.
+     */
+    public void skippedReset() {
+        partialResets++;
+    }
+
+    /**
+     * Number of interior positions changed since the last reset, or -1 if unknown.
+     */
+    public int changedBlocks() {
+        return changes == null ? -1 : changes.size();
+    }
+
+    /**
+     * Continues the regeneration started by {@link #beginRegeneration(MineFillOrder, MineFillBackend)} within
+     * the given budget.  Once the interior is complete the border is built (if needed); the
+     * next reset is picked by the {@link MineManager} when it finishes the reset.
+     *
+     * @return true if the regeneration has finished
+     */
+    public boolean continueRegeneration(ServerLevel level, RegenBudget budget) {
+        if (regenTask == null) {
+            return true;
+        }
+        long start = System.nanoTime();
+        long blocksBefore = budget.blocksRemaining();
+        boolean done = regenTask.advance(level, budget);
+        stats.regenSlice(System.nanoTime() - start, blocksBefore - budget.blocksRemaining());
+        if (!done) {
+            return false;
+        }
+        stats.regenFinished(regenTask.sectionsTouched(), regenTask.chunksTouched());
+        regenTask.complete(level);
+        regenTask = null;
+        if (!borderBuilt) {
+            border().build(level, borderBlock);
             borderBuilt = true;
         }
+        return true;
+    }
 
-        this.nextReset = level.getGameTime() + refillIntervalTicks;
+    /**
+     * Returns the compiled sampler for every interior layer, indexed by {@code y - (min.y + 1)}.
+     * Layered mines get a blended sampler per layer; otherwise every layer shares the default
+     * distribution.  The samplers come from {@link MineLayerProfiles}, so every mine with the
+     * same definition and height shares one array; it is looked up again when
+     * {@link #distribution} changes or {@link #invalidateSamplers()} is called.  Reloading
+     * the mine types does not touch them: a mine keeps its own copy of its type's
+     * distribution, so its profile stays the same.
+     */
+    BlockSampler[] compiledSamplers() {
+        if (samplers != null && distribution.equals(samplersSource)) {
+            return samplers;
+        }
+        int height = Math.max(0, max.getY() - min.getY());
+        this.samplers = MineLayerProfiles.get().profile(distribution, layers, height);
+        this.samplersSource = List.copyOf(distribution);
+        return samplers;
     }
 
-    private SimpleWeightedRandomList.@NotNull Builder<BlockState> getBlockStateBuilder(int y, int layerCount) {
-        double position = (double) (y - (min.getY() + 1)) / Math.max(1.0, max.getY() - (min.getY() + 1));
-        double scaled = position * (layerCount - 1);
-        int idx = (int) Math.floor(scaled);
-        double t = scaled - idx;
-        MineLayer layer1 = layers.get(Math.min(idx, layerCount - 1));
-        MineLayer layer2 = layers.get(Math.min(idx + 1, layerCount - 1));
-        Map<String, Double> combined = new HashMap<>();
-        BiConsumer<WeightedBlock, Double> accumulate = (wb, weightFactor) -> combined.merge(wb.blockId(), wb.weight() * weightFactor, Double::sum);
-        for (WeightedBlock wb : layer1.distribution()) {
-            accumulate.accept(wb, 1.0 - t);
+    private FillSource sampledSource(MineRandom random) {
+        if (templateSource != null) {
+            return templateSource;
         }
-        for (WeightedBlock wb : layer2.distribution()) {
-            accumulate.accept(wb, t);
+        if (veinSize > 0) {
+            int height = Math.max(0, max.getY() - min.getY());
+            MineVeinProfile profile = MineLayerProfiles.get().veinProfile(distribution, layers, height, veinSize);
+            // the regeneration's seed moves the veins around on every reset
+            return FillSource.veins(profile, min.getY() + 1, new VeinNoise(random.seed(), veinSize));
         }
-        SimpleWeightedRandomList.Builder<BlockState> builder = SimpleWeightedRandomList.builder();
-        combined.forEach((id, weight) -> {
-            Block block;
-            try {
-                var key = ResourceLocation.parse(id);
-                block = BuiltInRegistries.BLOCK.getOptional(key).orElse(Blocks.STONE);
-            } catch (Exception ex) {
-                block = Blocks.STONE;
-            }
-            builder.add(block.defaultBlockState(), (int) Math.max(1, weight * 1000.0));
-        });
-        return builder;
+        return FillSource.sampled(compiledSamplers(), min.getY() + 1);
+    }
+
+    /**
+     * Fills the interior from {@code pattern}, repeated from the interior's minimum
+     * corner, instead of the distributions.  Null goes back to sampling.
+     */
+    void useTemplate(@Nullable PackedFillPattern pattern) {
+        this.templateSource = pattern == null
+                ? null
+                : pattern.tiledView(min.getX() + 1, min.getY() + 1, min.getZ() + 1);
+    }
+
+    /**
+     * Returns true if regenerations copy a loaded structure template.
+     */
+    public boolean usesTemplate() {
+        return templateSource != null;
+    }
+
+    /**
+     * Returns true if the fill is not sampled block by block from the layer profile,
+     * i.e. it is a template or has veins, so it cannot be planned or pre‑generated.
+     */
+    public boolean hasStructuredFill() {
+        return templateSource != null || veinSize > 0;
+    }
+
+    /**
+     * Drops this mine's reference to its samplers so they are looked up again on the
+     * next regeneration.
+     */
+    public void invalidateSamplers() {
+        this.samplers = null;
+        this.samplersSource = null;
+        discardPreparedFill();
     }
-}
\ No newline at end of file
+}
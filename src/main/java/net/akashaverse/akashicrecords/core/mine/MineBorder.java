@@ -0,0 +1,141 @@
+package net.akashaverse.akashicrecords.core.mine;
+
+import net.akashaverse.akashicrecords.core.mine.metrics.MineStats;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The border of a {@link Mine}: the floor and the four walls, each a one block thick
+ * slab, with the top left open.  The slabs do not overlap and are split into
+ * section‑aligned {@link MineTile}s, so building the border only visits border
+ * positions and {@link #verify} can walk it a few hundred blocks per tick.
+ */
+final class MineBorder {
+    private final List<MineTile> tiles = new ArrayList<>();
+    /** position of {@link #verify} in {@link #tiles} */
+    private int tile;
+    private int offset;
+
+    MineBorder(BlockPos min, BlockPos max) {
+        int minX = min.getX();
+        int minY = min.getY();
+        int minZ = min.getZ();
+        int maxX = max.getX();
+        int maxY = max.getY();
+        int maxZ = max.getZ();
+        // floor
+        addFace(minX, minY, minZ, maxX, minY, maxZ);
+        if (maxY > minY) {
+            // west and east walls over the full depth, north and south walls between them
+            addFace(minX, minY + 1, minZ, minX, maxY, maxZ);
+            if (maxX > minX) {
+                addFace(maxX, minY + 1, minZ, maxX, maxY, maxZ);
+            }
+            if (maxX - minX > 1) {
+                addFace(minX + 1, minY + 1, minZ, maxX - 1, maxY, minZ);
+                if (maxZ > minZ) {
+                    addFace(minX + 1, minY + 1, maxZ, maxX - 1, maxY, maxZ);
+                }
+            }
+        }
+    }
+
+    private void addFace(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        tiles.addAll(MineTile.split(minX, minY, minZ, maxX, maxY, maxZ, MineFillOrder.BOTTOM_UP));
+    }
+
+    /**
+     * Places {@code state} at every border position that does not already hold it.
+     *
+     * @return the number of blocks placed
+     */
+    int build(ServerLevel level, BlockState state) {
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+        int placed = 0;
+        for (MineTile t : tiles) {
+            for (int y = t.minY(); y <= t.maxY(); y++) {
+                for (int z = t.minZ(); z <= t.maxZ(); z++) {
+                    for (int x = t.minX(); x <= t.maxX(); x++) {
+                        if (level.getBlockState(pos.set(x, y, z)) != state) {
+                            level.setBlockAndUpdate(pos, state);
+                            placed++;
+                        }
+                    }
+                }
+            }
+        }
+        return placed;
+    }
+
+    /**
+     * Checks up to {@code budget} border positions, continuing where the last call
+     * stopped, and puts {@code state} back wherever something else is found.  Tiles in
+     * unloaded chunks are skipped, as are tiles whose section holds nothing but
+     * {@code state}; each costs one unit of the budget.  Checks and repairs are
+     * counted in {@code stats}.
+     *
+     * @return the part of the budget used
+     */
+    int verify(ServerLevel level, BlockState state, int budget, MineStats stats) {
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+        int used = 0;
+        while (used < budget && !tiles.isEmpty()) {
+            MineTile t = tiles.get(tile);
+            LevelChunk chunk = level.getChunkSource().getChunkNow(t.sectionX(), t.sectionZ());
+            if (chunk == null || offset == 0 && uniform(chunk, t, state)) {
+                used++;
+                nextTile();
+            } else {
+                int sizeX = t.sizeX();
+                int area = sizeX * t.sizeZ();
+                int end = Math.min(t.volume(), offset + budget - used);
+                used += end - offset;
+                for (; offset < end; offset++) {
+                    int y = t.minY() + offset / area;
+                    int z = t.minZ() + offset % area / sizeX;
+                    int x = t.minX() + offset % sizeX;
+                    if (chunk.getBlockState(pos.set(x, y, z)) != state) {
+                        level.setBlockAndUpdate(pos, state);
+                        stats.borderRepairs++;
+                    }
+                }
+                if (offset == t.volume()) {
+                    nextTile();
+                }
+            }
+            if (atStart()) {
+                break;
+            }
+        }
+        stats.borderChecks += used;
+        return used;
+    }
+
+    /**
+     * Returns true when {@link #verify} has just finished a pass over the border, or
+     * has not started one yet.
+     */
+    boolean atStart() {
+        return tile == 0 && offset == 0;
+    }
+
+    private void nextTile() {
+        offset = 0;
+        tile = tile + 1 == tiles.size() ? 0 : tile + 1;
+    }
+
+    private static boolean uniform(LevelChunk chunk, MineTile t, BlockState state) {
+        int index = chunk.getSectionIndexFromSectionY(t.sectionY());
+        if (index < 0 || index >= chunk.getSectionsCount()) {
+            return false;
+        }
+        LevelChunkSection section = chunk.getSection(index);
+        return !section.getStates().maybeHas(s -> s != state);
+    }
+}
@@ -0,0 +1,71 @@
+package net.akashaverse.akashicrecords.core.mine;
+
+import net.minecraft.core.BlockPos;
+
+import java.util.BitSet;
+
+/**
+ * Interior positions of a {@link Mine} that have changed since its last reset, one
+ * bit per position.  Bits are numbered layer by layer from the bottom of the
+ * interior, so walking them backwards visits the mine from the top down.
+ */
+class MineChangeSet {
+    private final int minX;
+    private final int minY;
+    private final int minZ;
+    private final int sizeX;
+    private final int sizeY;
+    private final int sizeZ;
+    private BitSet changed = new BitSet();
+
+    MineChangeSet(Mine mine) {
+        this.minX = mine.min.getX() + 1;
+        this.minY = mine.min.getY() + 1;
+        this.minZ = mine.min.getZ() + 1;
+        this.sizeX = Math.max(0, mine.max.getX() - mine.min.getX() - 1);
+        this.sizeY = Math.max(0, mine.max.getY() - mine.min.getY());
+        this.sizeZ = Math.max(0, mine.max.getZ() - mine.min.getZ() - 1);
+    }
+
+    /**
+     * Records a change at {@code pos}; positions outside the interior are ignored.
+     */
+    void mark(BlockPos pos) {
+        int x = pos.getX() - minX;
+        int y = pos.getY() - minY;
+        int z = pos.getZ() - minZ;
+        if (x < 0 || y < 0 || z < 0 || x >= sizeX || y >= sizeY || z >= sizeZ) {
+            return;
+        }
+        changed.set((y * sizeZ + z) * sizeX + x);
+    }
+
+    boolean isEmpty() {
+        return changed.isEmpty();
+    }
+
+    int size() {
+        return changed.cardinality();
+    }
+
+    /**
+     * Returns the recorded changes and starts a new, empty set.
+     */
+    BitSet drain() {
+        BitSet drained = changed;
+        changed = new BitSet();
+        return drained;
+    }
+
+    int x(int bit) {
+        return minX + bit % sizeX;
+    }
+
+    int y(int bit) {
+        return minY + bit / (sizeX * sizeZ);
+    }
+
+    int z(int bit) {
+        return minZ + (bit / sizeX) % sizeZ;
+    }
+}
@@ -0,0 +1,185 @@
+package net.akashaverse.akashicrecords.core.mine;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.shorts.ShortSet;
+import net.akashaverse.akashicrecords.configs.MineConfig;
+import net.minecraft.core.SectionPos;
+import net.minecraft.network.protocol.Packet;
+import net.minecraft.network.protocol.game.ClientboundLevelChunkWithLightPacket;
+import net.minecraft.network.protocol.game.ClientboundSectionBlocksUpdatePacket;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.chunk.LevelChunk;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Sends the blocks written by regenerations, slice by slice, to the players tracking them.
+ * <p>
+ * A {@link MineSyncBatch} is turned into one {@link ClientboundSectionBlocksUpdatePacket}
+ * per changed section, or into a single chunk resend for chunks where some section
+ * changed more than {@link MineConfig#SYNC_FULL_CHUNK_THRESHOLD} blocks.  Each player
+ * has a queue of these updates, nearest first, and receives at most
+ * {@link MineConfig#SYNC_BYTES_PER_PLAYER_TICK} estimated bytes of them per tick.
+ * Packets are built when they are sent, so they always carry the current blocks.
+ */
+public class MineClientSync {
+    private static final MineClientSync INSTANCE = new MineClientSync();
+
+    /** rough size of a chunk packet for a mostly solid chunk */
+    private static final int CHUNK_PACKET_BYTES = 16 * 1024;
+
+    private final Map<UUID, List<Update>> queues = new LinkedHashMap<>();
+
+    /**
+     * One pending packet: the changed positions of a section, or a whole chunk when
+     * {@code positions} is null.  Shared between the queues of every player it goes to.
+     */
+    record Update(ServerLevel level, long pos, ShortSet positions) {
+        int estimatedBytes() {
+            return positions == null ? CHUNK_PACKET_BYTES : 16 + 8 * positions.size();
+        }
+
+        ChunkPos chunk() {
+            return positions == null
+                    ? new ChunkPos(pos)
+                    : new ChunkPos(SectionPos.x(pos), SectionPos.z(pos));
+        }
+
+        double distanceSqr(ServerPlayer player) {
+            double x = positions == null ? ChunkPos.getX(pos) * 16 + 8 : SectionPos.x(pos) * 16 + 8;
+            double z = positions == null ? ChunkPos.getZ(pos) * 16 + 8 : SectionPos.z(pos) * 16 + 8;
+            double y = positions == null ? player.getY() : SectionPos.y(pos) * 16 + 8;
+            return player.distanceToSqr(x, y, z);
+        }
+    }
+
+    MineClientSync() {}
+
+    public static MineClientSync get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Queues the changes of a regeneration slice for every player tracking them.
+     */
+    public void submit(ServerLevel level, MineSyncBatch batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        int threshold = MineConfig.SYNC_FULL_CHUNK_THRESHOLD.get();
+        LongSet fullChunks = new LongOpenHashSet();
+        for (Long2ObjectMap.Entry<ShortSet> entry : batch.sections().long2ObjectEntrySet()) {
+            if (entry.getValue().size() >= threshold) {
+                long section = entry.getLongKey();
+                fullChunks.add(ChunkPos.asLong(SectionPos.x(section), SectionPos.z(section)));
+            }
+        }
+
+        List<Update> updates = new ArrayList<>();
+        for (long chunk : fullChunks) {
+            updates.add(new Update(level, chunk, null));
+        }
+        for (Long2ObjectMap.Entry<ShortSet> entry : batch.sections().long2ObjectEntrySet()) {
+            long section = entry.getLongKey();
+            if (!fullChunks.contains(ChunkPos.asLong(SectionPos.x(section), SectionPos.z(section)))) {
+                updates.add(new Update(level, section, entry.getValue()));
+            }
+        }
+
+        Map<ServerPlayer, List<Update>> byPlayer = new HashMap<>();
+        for (Update update : updates) {
+            for (ServerPlayer player : level.getChunkSource().chunkMap.getPlayers(update.chunk(), false)) {
+                byPlayer.computeIfAbsent(player, p -> new ArrayList<>()).add(update);
+            }
+        }
+        byPlayer.forEach((player, added) -> {
+            List<Update> queue = queues.computeIfAbsent(player.getUUID(), id -> new ArrayList<>());
+            queue.addAll(added);
+            queue.sort(Comparator.comparingDouble(u -> u.distanceSqr(player)));
+        });
+    }
+
+    /**
+     * Sends each player the nearest of their queued updates, up to the per‑player budget.
+     * A player always gets at least one update per tick, however large.
+     */
+    public void tick(MinecraftServer server) {
+        if (queues.isEmpty()) {
+            return;
+        }
+        int budget = MineConfig.SYNC_BYTES_PER_PLAYER_TICK.get();
+        Map<Update, Packet<?>> built = new IdentityHashMap<>();
+        Iterator<Map.Entry<UUID, List<Update>>> it = queues.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<UUID, List<Update>> entry = it.next();
+            ServerPlayer player = server.getPlayerList().getPlayer(entry.getKey());
+            List<Update> queue = entry.getValue();
+            if (player == null) {
+                it.remove();
+                continue;
+            }
+            int sent = 0;
+            int spent = 0;
+            while (sent < queue.size() && (spent == 0 || spent + queue.get(sent).estimatedBytes() <= budget)) {
+                Update update = queue.get(sent++);
+                if (player.level() != update.level() || !player.getChunkTrackingView().contains(update.chunk())) {
+                    continue;
+                }
+                Packet<?> packet = built.computeIfAbsent(update, MineClientSync::build);
+                if (packet != null) {
+                    player.connection.send(packet);
+                    spent += update.estimatedBytes();
+                }
+            }
+            queue.subList(0, sent).clear();
+            if (queue.isEmpty()) {
+                it.remove();
+            }
+        }
+    }
+
+    private static Packet<?> build(Update update) {
+        ServerLevel level = update.level();
+        ChunkPos chunkPos = update.chunk();
+        LevelChunk chunk = level.getChunkSource().getChunkNow(chunkPos.x, chunkPos.z);
+        if (chunk == null) {
+            return null;
+        }
+        if (update.positions() == null) {
+            return new ClientboundLevelChunkWithLightPacket(chunk, level.getChunkSource().getLightEngine(), null, null);
+        }
+        int sectionIndex = chunk.getSectionIndexFromSectionY(SectionPos.y(update.pos()));
+        if (sectionIndex < 0 || sectionIndex >= chunk.getSectionsCount()) {
+            return null;
+        }
+        return new ClientboundSectionBlocksUpdatePacket(SectionPos.of(update.pos()), update.positions(),
+                chunk.getSection(sectionIndex));
+    }
+
+    /**
+     * Number of players with updates still queued.
+     */
+    public int size() {
+        return queues.size();
+    }
+
+    /**
+     * Drops every queued update, e.g. when the server stops.
+     */
+    public void clear() {
+        queues.clear();
+    }
+}
@@ -0,0 +1,307 @@
+package net.akashaverse.akashicrecords.core.mine;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.StringTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Reads and writes the mines of a {@link MineManager}.
+ * <p>
+ * Version 2 stores all mines column‑wise in a handful of primitive arrays instead of
+ * one compound per mine.  Block ids are written once to a shared palette and referred
+ * to by index.  Every mine owns a run of distributions: the first is its base
+ * distribution and any further ones are its layers, top to bottom.  Every later
+ * version adds columns and reads the older ones unchanged:
+ * <ul>
+ *     <li>3: the chunks still waiting for a lazy reset, as a run of chunk keys per mine</li>
+ *     <li>4: the structure template id of each mine, empty for none</li>
+ *     <li>5: the ore vein size of each mine</li>
+ *     <li>6: the seed of each mine's last regeneration</li>
+ *     <li>7: the terrain restores in progress, see {@link #writeRestores}</li>
+ * </ul>
+ * Data of an older version simply lacks the newer columns and is rewritten in the
+ * current version on the next save.  Data of a newer version than this reader knows
+ * is refused instead of being read without the columns it does not understand.
+ * <p>
+ * Data without a version is the original format with one compound per mine and
+ * {@code "id|weight"} strings; it is still read as version 1.
+ */
+final class MineCodec {
+    static final int VERSION = 7;
+    /** version of the data without a {@code "version"} tag */
+    static final int LEGACY_VERSION = 1;
+
+    private MineCodec() {}
+
+    static void write(Map<String, Mine> mines, CompoundTag compound) {
+        int count = mines.size();
+        ListTag names = new ListTag();
+        int[] bounds = new int[count * 9];
+        int[] timing = new int[count * 2];
+        long[] nextReset = new long[count];
+        int[] border = new int[count];
+        byte[] flags = new byte[count];
+        int[] mineDistributions = new int[count + 1];
+        int[] pendingOffsets = new int[count + 1];
+        LongArrayList pendingChunks = new LongArrayList();
+        ListTag templates = new ListTag();
+        int[] veinSizes = new int[count];
+        long[] seeds = new long[count];
+        IntArrayList entryOffsets = new IntArrayList();
+        IntArrayList blocks = new IntArrayList();
+        LongArrayList weights = new LongArrayList();
+
+        Palette palette = new Palette();
+        entryOffsets.add(0);
+        int i = 0;
+        int distributions = 0;
+        for (Map.Entry<String, Mine> entry : mines.entrySet()) {
+            Mine mine = entry.getValue();
+            names.add(StringTag.valueOf(entry.getKey()));
+            putPos(bounds, i * 9, mine.min);
+            putPos(bounds, i * 9 + 3, mine.max);
+            putPos(bounds, i * 9 + 6, mine.entrance());
+            timing[i * 2] = mine.refillIntervalTicks;
+            timing[i * 2 + 1] = mine.warningTicks;
+            nextReset[i] = mine.nextReset();
+            border[i] = palette.indexOf(BuiltInRegistries.BLOCK.getKey(mine.borderBlock.getBlock()).toString());
+            flags[i] = (byte) (mine.isBorderBuilt() ? 1 : 0);
+            templates.add(StringTag.valueOf(mine.template() == null ? "" : mine.template().toString()));
+            veinSizes[i] = mine.veinSize();
+            seeds[i] = mine.lastSeed();
+
+            writeDistribution(mine.distribution, palette, blocks, weights, entryOffsets);
+            distributions++;
+            if (mine.layers != null) {
+                for (MineLayer layer : mine.layers) {
+                    writeDistribution(layer.distribution(), palette, blocks, weights, entryOffsets);
+                    distributions++;
+                }
+            }
+            pendingChunks.addElements(pendingChunks.size(), mine.pendingChunks());
+            pendingOffsets[i + 1] = pendingChunks.size();
+            mineDistributions[++i] = distributions;
+        }
+
+        compound.putInt("version", VERSION);
+        compound.put("palette", palette.ids);
+        compound.put("names", names);
+        compound.putIntArray("bounds", bounds);
+        compound.putIntArray("timing", timing);
+        compound.putLongArray("nextReset", nextReset);
+        compound.putIntArray("border", border);
+        compound.putByteArray("flags", flags);
+        compound.putIntArray("mineDistributions", mineDistributions);
+        compound.putIntArray("entryOffsets", entryOffsets.toIntArray());
+        compound.putIntArray("blocks", blocks.toIntArray());
+        compound.putLongArray("weights", weights.toLongArray());
+        compound.putIntArray("pendingOffsets", pendingOffsets);
+        compound.putLongArray("pendingChunks", pendingChunks.toLongArray());
+        compound.put("templates", templates);
+        compound.putIntArray("veinSizes", veinSizes);
+        compound.putLongArray("seeds", seeds);
+    }
+
+    /**
+     * Reads every mine of {@code compound} into {@code sink}.
+     *
+     * @return the version the data was saved in
+     * @throws IllegalStateException if the data is of a newer version than {@link #VERSION}
+     */
+    static int read(CompoundTag compound, BiConsumer<String, Mine> sink) {
+        if (!compound.contains("version")) {
+            readLegacy(compound.getCompound("mines"), sink);
+            return LEGACY_VERSION;
+        }
+        int version = compound.getInt("version");
+        if (version > VERSION) {
+            throw new IllegalStateException("Mine data version " + version
+                    + " is newer than the supported version " + VERSION);
+        }
+        ListTag paletteTag = compound.getList("palette", Tag.TAG_STRING);
+        String[] palette = new String[paletteTag.size()];
+        for (int p = 0; p < palette.length; p++) {
+            palette[p] = paletteTag.getString(p);
+        }
+        ListTag names = compound.getList("names", Tag.TAG_STRING);
+        int[] bounds = compound.getIntArray("bounds");
+        int[] timing = compound.getIntArray("timing");
+        long[] nextReset = compound.getLongArray("nextReset");
+        int[] border = compound.getIntArray("border");
+        byte[] flags = compound.getByteArray("flags");
+        int[] mineDistributions = compound.getIntArray("mineDistributions");
+        int[] entryOffsets = compound.getIntArray("entryOffsets");
+        int[] blocks = compound.getIntArray("blocks");
+        long[] weights = compound.getLongArray("weights");
+        int[] pendingOffsets = compound.getIntArray("pendingOffsets");
+        long[] pendingChunks = compound.getLongArray("pendingChunks");
+        ListTag templates = compound.getList("templates", Tag.TAG_STRING);
+        int[] veinSizes = compound.getIntArray("veinSizes");
+        long[] seeds = compound.getLongArray("seeds");
+
+        for (int i = 0; i < names.size(); i++) {
+            int first = mineDistributions[i];
+            int end = mineDistributions[i + 1];
+            List<WeightedBlock> distribution = readDistribution(palette, entryOffsets, blocks, weights, first);
+            List<MineLayer> layers = new ArrayList<>(end - first - 1);
+            for (int d = first + 1; d < end; d++) {
+                layers.add(new MineLayer(readDistribution(palette, entryOffsets, blocks, weights, d)));
+            }
+            Mine mine = new Mine(getPos(bounds, i * 9), getPos(bounds, i * 9 + 3), getPos(bounds, i * 9 + 6),
+                    timing[i * 2], timing[i * 2 + 1], borderState(palette[border[i]]), distribution, layers);
+            mine.setNextReset(nextReset[i]);
+            mine.setBorderBuilt(flags[i] != 0);
+            if (version >= 3) {
+                mine.setPendingChunks(Arrays.copyOfRange(pendingChunks, pendingOffsets[i], pendingOffsets[i + 1]));
+            }
+            if (version >= 4 && !templates.getString(i).isEmpty()) {
+                mine.setTemplate(ResourceLocation.tryParse(templates.getString(i)));
+            }
+            if (version >= 5) {
+                mine.setVeinSize(veinSizes[i]);
+            }
+            if (version >= 6) {
+                mine.setLastSeed(seeds[i]);
+            }
+            sink.accept(names.getString(i), mine);
+        }
+        return version;
+    }
+
+    /**
+     * Writes the terrain restores in progress, each as a compound holding its removed
+     * mine in this format and the number of tiles already written.
+     */
+    static void writeRestores(List<MineRestoreTask> restores, CompoundTag compound) {
+        ListTag list = new ListTag();
+        for (MineRestoreTask restore : restores) {
+            CompoundTag tag = new CompoundTag();
+            write(Map.of(restore.name, restore.mine()), tag);
+            tag.putInt("cursor", restore.cursor());
+            list.add(tag);
+        }
+        compound.put("restores", list);
+    }
+
+    static void readRestores(CompoundTag compound, int version, RestoreSink sink) {
+        if (version < 7) {
+            return;
+        }
+        ListTag list = compound.getList("restores", Tag.TAG_COMPOUND);
+        for (int r = 0; r < list.size(); r++) {
+            CompoundTag tag = list.getCompound(r);
+            read(tag, (name, mine) -> sink.accept(name, mine, tag.getInt("cursor")));
+        }
+    }
+
+    @FunctionalInterface
+    interface RestoreSink {
+        void accept(String name, Mine mine, int cursor);
+    }
+
+    private static void writeDistribution(List<WeightedBlock> distribution, Palette palette,
+                                          IntArrayList blocks, LongArrayList weights, IntArrayList entryOffsets) {
+        for (WeightedBlock wb : distribution) {
+            blocks.add(palette.indexOf(wb.blockId()));
+            weights.add(Double.doubleToRawLongBits(wb.weight()));
+        }
+        entryOffsets.add(blocks.size());
+    }
+
+    private static List<WeightedBlock> readDistribution(String[] palette, int[] entryOffsets, int[] blocks,
+                                                        long[] weights, int index) {
+        int start = entryOffsets[index];
+        int end = entryOffsets[index + 1];
+        List<WeightedBlock> distribution = new ArrayList<>(end - start);
+        for (int e = start; e < end; e++) {
+            distribution.add(new WeightedBlock(palette[blocks[e]], Double.longBitsToDouble(weights[e])));
+        }
+        return distribution;
+    }
+
+    private static void putPos(int[] array, int offset, BlockPos pos) {
+        array[offset] = pos.getX();
+        array[offset + 1] = pos.getY();
+        array[offset + 2] = pos.getZ();
+    }
+
+    private static BlockPos getPos(int[] array, int offset) {
+        return new BlockPos(array[offset], array[offset + 1], array[offset + 2]);
+    }
+
+    private static BlockState borderState(String borderId) {
+        ResourceLocation key = ResourceLocation.tryParse(borderId);
+        if (key == null) {
+            return Blocks.BEDROCK.defaultBlockState();
+        }
+        return BuiltInRegistries.BLOCK.getOptional(key).orElse(Blocks.BEDROCK).defaultBlockState();
+    }
+
+    /**
+     * Reads the original format: one compound per mine, distribution entries as
+     * {@code "id|weight"} strings and no layers.
+     */
+    private static void readLegacy(CompoundTag minesTag, BiConsumer<String, Mine> sink) {
+        for (String name : minesTag.getAllKeys()) {
+            CompoundTag tag = minesTag.getCompound(name);
+            int[] minArr = tag.getIntArray("min");
+            int[] maxArr = tag.getIntArray("max");
+            int[] entArr = tag.getIntArray("entrance");
+            BlockPos pos1 = new BlockPos(minArr[0], minArr[1], minArr[2]);
+            BlockPos pos2 = new BlockPos(maxArr[0], maxArr[1], maxArr[2]);
+            BlockPos entrance = new BlockPos(entArr[0], entArr[1], entArr[2]);
+            ListTag distList = tag.getList("distribution", Tag.TAG_STRING);
+            List<WeightedBlock> distribution = new ArrayList<>(distList.size());
+            for (int i = 0; i < distList.size(); i++) {
+                String[] parts = distList.getString(i).split("\\|");
+                String id = parts.length > 0 ? parts[0] : "minecraft:stone";
+                double weight = 1.0;
+                if (parts.length > 1) {
+                    try { weight = Double.parseDouble(parts[1]); } catch (NumberFormatException ignored) {}
+                }
+                distribution.add(new WeightedBlock(id, weight));
+            }
+            Mine mine = new Mine(pos1, pos2, entrance, tag.getInt("refillInterval"), tag.getInt("warning"),
+                    borderState(tag.getString("border")), distribution);
+            mine.setNextReset(tag.getLong("nextReset"));
+            if (tag.contains("borderBuilt")) {
+                mine.setBorderBuilt(tag.getBoolean("borderBuilt"));
+            }
+            sink.accept(name, mine);
+        }
+    }
+
+    private static final class Palette {
+        final ListTag ids = new ListTag();
+        final Object2IntOpenHashMap<String> indices = new Object2IntOpenHashMap<>();
+
+        Palette() {
+            indices.defaultReturnValue(-1);
+        }
+
+        int indexOf(String id) {
+            int index = indices.getInt(id);
+            if (index < 0) {
+                index = ids.size();
+                indices.put(id, index);
+                ids.add(StringTag.valueOf(id));
+            }
+            return index;
+        }
+    }
+}
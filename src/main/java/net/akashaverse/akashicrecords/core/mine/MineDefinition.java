@@ -0,0 +1,54 @@
+package net.akashaverse.akashicrecords.core.mine;
+
+import net.akashaverse.akashicrecords.core.mine.metrics.MineStats;
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.level.block.state.BlockState;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable copy of a mine's definition, schedule and statistics as of the last time
+ * its {@link MineManager} published a {@link MineRegistrySnapshot}.  Safe to read from
+ * any thread, unlike the {@link Mine} it was taken from; {@code stats} is a copy that
+ * must not be modified.
+ */
+public record MineDefinition(String name,
+                             BlockPos min,
+                             BlockPos max,
+                             BlockPos entrance,
+                             int refillIntervalTicks,
+                             int warningTicks,
+                             BlockState borderBlock,
+                             List<WeightedBlock> distribution,
+                             List<MineLayer> layers,
+                             long nextReset,
+                             boolean borderBuilt,
+                             @Nullable ResourceLocation template,
+                             int veinSize,
+                             long lastSeed,
+                             MineStats stats) {
+
+    static MineDefinition of(String name, Mine mine) {
+        List<MineLayer> layers = List.of();
+        if (mine.layers != null) {
+            List<MineLayer> copied = new ArrayList<>(mine.layers.size());
+            for (MineLayer layer : mine.layers) {
+                copied.add(new MineLayer(List.copyOf(layer.distribution())));
+            }
+            layers = List.copyOf(copied);
+        }
+        return new MineDefinition(name, mine.min, mine.max, mine.entrance(),
+                mine.refillIntervalTicks, mine.warningTicks, mine.borderBlock,
+                List.copyOf(mine.distribution), layers, mine.nextReset(), mine.isBorderBuilt(), mine.template(), mine.veinSize(),
+                mine.lastSeed(), mine.stats.copy());
+    }
+
+    public boolean contains(BlockPos pos) {
+        return pos.getX() >= min.getX() && pos.getX() <= max.getX()
+                && pos.getY() >= min.getY() && pos.getY() <= max.getY()
+                && pos.getZ() >= min.getZ() && pos.getZ() <= max.getZ();
+    }
+}
@@ -0,0 +1,17 @@
+package net.akashaverse.akashicrecords.core.mine;
+
+/**
+ * How regenerated blocks are written into the world.
+ * <ul>
+ *   <li>{@link #SET_BLOCK} places every block through {@code Level#setBlock} with
+ *       neighbour updates, but without a packet per block.</li>
+ *   <li>{@link #CHUNK_SECTION} writes directly into the palettes of the chunk sections
+ *       covered by the mine, without neighbour updates.</li>
+ * </ul>
+ * Both record the changed positions and hand them to {@link MineClientSync} after
+ * every slice, which sends them as section or chunk updates within its byte budget.
+ */
+public enum MineFillBackend {
+    SET_BLOCK,
+    CHUNK_SECTION
+}
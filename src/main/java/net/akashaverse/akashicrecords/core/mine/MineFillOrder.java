@@ -0,0 +1,11 @@
+package net.akashaverse.akashicrecords.core.mine;
+
+/**
+ * Order in which a time‑sliced regeneration walks the interior of a mine.
+ * {@link #TOP_DOWN} refills the surface layer first so players can see the
+ * mine come back while the lower layers are still being written.
+ */
+public enum MineFillOrder {
+    TOP_DOWN,
+    BOTTOM_UP
+}
@@ -0,0 +1,80 @@
+package net.akashaverse.akashicrecords.core.mine;
+
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.block.state.BlockState;
+
+import java.util.List;
+
+/**
+ * The block states chosen for one regeneration of a mine, stored per
+ * {@link MineTile} in the tile's y, z, x order.  Plans are computed off the
+ * server thread by {@link MineFillPlanner}; once complete they are immutable
+ * and only read by the regeneration task that applies them.
+ */
+public class MineFillPlan implements FillSource {
+    private final int minSecX;
+    private final int minSecY;
+    private final int minSecZ;
+    private final int countX;
+    private final int countZ;
+    /** tiles and their states indexed by section offset, see {@link #slot(int, int, int)} */
+    private final MineTile[] tiles;
+    private final BlockState[][] states;
+
+    MineFillPlan(List<MineTile> tiles) {
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+        for (MineTile tile : tiles) {
+            minX = Math.min(minX, tile.sectionX());
+            minY = Math.min(minY, tile.sectionY());
+            minZ = Math.min(minZ, tile.sectionZ());
+            maxX = Math.max(maxX, tile.sectionX());
+            maxY = Math.max(maxY, tile.sectionY());
+            maxZ = Math.max(maxZ, tile.sectionZ());
+        }
+        this.minSecX = minX;
+        this.minSecY = minY;
+        this.minSecZ = minZ;
+        this.countX = tiles.isEmpty() ? 0 : maxX - minX + 1;
+        this.countZ = tiles.isEmpty() ? 0 : maxZ - minZ + 1;
+        int countY = tiles.isEmpty() ? 0 : maxY - minY + 1;
+        this.tiles = new MineTile[countX * countY * countZ];
+        this.states = new BlockState[this.tiles.length][];
+        for (MineTile tile : tiles) {
+            this.tiles[slot(tile.sectionX(), tile.sectionY(), tile.sectionZ())] = tile;
+        }
+    }
+
+    private int slot(int sectionX, int sectionY, int sectionZ) {
+        return ((sectionY - minSecY) * countX + (sectionX - minSecX)) * countZ + (sectionZ - minSecZ);
+    }
+
+    void put(MineTile tile, BlockState[] tileStates) {
+        states[slot(tile.sectionX(), tile.sectionY(), tile.sectionZ())] = tileStates;
+    }
+
+    /**
+     * The planned states of a tile, in {@link MineTile#index(int, int, int)} order.
+     */
+    public BlockState[] states(MineTile tile) {
+        return states[slot(tile.sectionX(), tile.sectionY(), tile.sectionZ())];
+    }
+
+    @Override
+    public BlockState[] tileStates(MineTile tile, BlockState[] buffer, MineRandom random) {
+        return states(tile);
+    }
+
+    @Override
+    public BlockState stateAt(int x, int y, int z, MineRandom random) {
+        return stateAt(x, y, z);
+    }
+
+    /**
+     * The planned state of a single interior position.
+     */
+    public BlockState stateAt(int x, int y, int z) {
+        int slot = slot(SectionPos.blockToSectionCoord(x), SectionPos.blockToSectionCoord(y), SectionPos.blockToSectionCoord(z));
+        return states[slot][tiles[slot].index(x, y, z)];
+    }
+}
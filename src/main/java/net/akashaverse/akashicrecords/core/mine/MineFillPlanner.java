@@ -0,0 +1,160 @@
+package net.akashaverse.akashicrecords.core.mine;
+
+import net.akashaverse.akashicrecords.configs.MineConfig;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.block.state.BlockState;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Computes {@link MineFillPlan}s on a dedicated {@link ForkJoinPool}.  The mine is
+ * split into section‑aligned {@link MineTile}s and each tile is sampled on its own
+ * with a {@link MineRandom} derived from the reset seed and the tile's section
+ * position, so the same seed always produces the same plan no matter how the work
+ * was scheduled.  Only the compiled samplers cross threads; they and the block
+ * states they return are immutable.
+ */
+public class MineFillPlanner {
+    /** tiles below this count are planned on the current worker instead of being split further */
+    private static final int SPLIT_THRESHOLD = 2;
+
+    private static ForkJoinPool pool;
+    /** futures handed out that have not completed yet, see {@link #shutdown()} */
+    private static final Set<CompletableFuture<?>> outstanding = ConcurrentHashMap.newKeySet();
+
+    private MineFillPlanner() {}
+
+    /**
+     * Starts planning a regeneration of {@code mine}.  Must be called on the server
+     * thread because the samplers are compiled (or fetched from the mine's cache) here.
+     */
+    public static CompletableFuture<MineFillPlan> plan(Mine mine, long seed) {
+        return plan(mine.compiledSamplers(), mine, seed);
+    }
+
+    /**
+     * Starts planning a regeneration of {@code mine} with already compiled samplers.
+     * Safe to call from any thread since only the mine's bounds are read.
+     */
+    static CompletableFuture<MineFillPlan> plan(BlockSampler[] samplers, Mine mine, long seed) {
+        List<MineTile> tiles = MineTile.split(
+                mine.min.getX() + 1, mine.min.getY() + 1, mine.min.getZ() + 1,
+                mine.max.getX() - 1, mine.max.getY(), mine.max.getZ() - 1,
+                MineFillOrder.TOP_DOWN);
+        int baseY = mine.min.getY() + 1;
+        return track(CompletableFuture.supplyAsync(() -> {
+            MineFillPlan plan = new MineFillPlan(tiles);
+            new PlanTiles(plan, tiles, 0, tiles.size(), samplers, baseY, seed).invoke();
+            return plan;
+        }, pool()));
+    }
+
+    /**
+     * Remembers a future that depends on work queued on the pool, so that
+     * {@link #shutdown()} can cancel it if the work never runs.
+     */
+    static <T> CompletableFuture<T> track(CompletableFuture<T> future) {
+        outstanding.add(future);
+        future.whenComplete((result, error) -> outstanding.remove(future));
+        return future;
+    }
+
+    /**
+     * Samples one tile into a new array.  Package‑private so benchmarks can measure
+     * a single tile.
+     */
+    static BlockState[] planTile(MineTile tile, BlockSampler[] samplers, int baseY, long seed) {
+        MineRandom random = MineRandom.derive(seed,
+                SectionPos.asLong(tile.sectionX(), tile.sectionY(), tile.sectionZ()));
+        BlockState[] states = new BlockState[tile.volume()];
+        long[] bits = new long[tile.sizeX() * tile.sizeZ()];
+        int area = bits.length;
+        int i = 0;
+        for (int y = tile.minY(); y <= tile.maxY(); y++) {
+            random.fill(bits, area);
+            samplers[y - baseY].pickAll(bits, area, states, i);
+            i += area;
+        }
+        return states;
+    }
+
+    /**
+     * Creates the pool with the configured number of threads.  Called when the server
+     * starts, so a changed {@link MineConfig#PLANNER_THREADS} applies to the next world.
+     */
+    public static synchronized void start() {
+        shutdown();
+        pool();
+    }
+
+    /**
+     * Stops the pool's threads.  Plans still queued or running are abandoned and
+     * their futures cancelled, so nothing waits for them forever; the next
+     * {@link #start()} or planning request creates a new pool.
+     */
+    public static synchronized void shutdown() {
+        if (pool != null) {
+            pool.shutdownNow();
+            pool = null;
+        }
+        for (CompletableFuture<?> future : List.copyOf(outstanding)) {
+            future.cancel(false);
+        }
+    }
+
+    static synchronized ForkJoinPool pool() {
+        if (pool == null) {
+            int threads = MineConfig.PLANNER_THREADS.get();
+            if (threads <= 0) {
+                threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+            }
+            pool = new ForkJoinPool(threads, p -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+                thread.setName("Akashic Mine Planner #" + thread.getPoolIndex());
+                thread.setDaemon(true);
+                return thread;
+            }, null, false);
+        }
+        return pool;
+    }
+
+    private static class PlanTiles extends RecursiveAction {
+        private final MineFillPlan plan;
+        private final List<MineTile> tiles;
+        private final int from;
+        private final int to;
+        private final BlockSampler[] samplers;
+        private final int baseY;
+        private final long seed;
+
+        PlanTiles(MineFillPlan plan, List<MineTile> tiles, int from, int to, BlockSampler[] samplers, int baseY, long seed) {
+            this.plan = plan;
+            this.tiles = tiles;
+            this.from = from;
+            this.to = to;
+            this.samplers = samplers;
+            this.baseY = baseY;
+            this.seed = seed;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    MineTile tile = tiles.get(i);
+                    plan.put(tile, planTile(tile, samplers, baseY, seed));
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new PlanTiles(plan, tiles, from, mid, samplers, baseY, seed),
+                    new PlanTiles(plan, tiles, mid, to, samplers, baseY, seed));
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package net.akashaverse.akashicrecords.core.mine;
+
+import net.akashaverse.akashicrecords.AkashicRecords;
+import net.minecraft.Util;
+import net.minecraft.world.level.block.state.BlockState;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * A set of pre‑generated fills for one mine.  Each variant is planned once from
+ * its own seed and stored as a {@link PackedFillPattern}; resets then cycle through
+ * the variants, and once every variant has been used they are replayed mirrored
+ * along X, then Z, then both, so {@code n} stored variants give {@code 4n}
+ * different looking resets before the sequence repeats.
+ */
+public class MineFillVariants {
+    /** the samplers the variants were generated from, used to detect distribution changes */
+    private final BlockSampler[] samplers;
+    private final List<PackedFillPattern> patterns;
+    private final int originX;
+    private final int originY;
+    private final int originZ;
+    private int turn;
+
+    private MineFillVariants(BlockSampler[] samplers, List<PackedFillPattern> patterns, int originX, int originY, int originZ) {
+        this.samplers = samplers;
+        this.patterns = patterns;
+        this.originX = originX;
+        this.originY = originY;
+        this.originZ = originZ;
+    }
+
+    /**
+     * Generates {@code count} variants on the planner pool, one after another.  When {@code storageDir} is
+     * given, each variant is memory‑mapped from a file there; files left over from an
+     * earlier run with the same mine shape, distribution and seed are reused instead of
+     * being generated again, and any other file in the directory is deleted.
+     * {@code storageDir} must belong to this mine alone.
+     * <p>
+     * A file is named after a SHA‑256 digest of everything the variant depends on and
+     * stores more bits of that digest in its header, so two definitions never load
+     * each other's fill.
+     */
+    static CompletableFuture<MineFillVariants> generate(Mine mine, BlockSampler[] samplers, int count, long seed,
+                                                        @Nullable Path storageDir) {
+        int originX = mine.min.getX() + 1;
+        int originY = mine.min.getY() + 1;
+        int originZ = mine.min.getZ() + 1;
+        int sizeX = mine.max.getX() - mine.min.getX() - 1;
+        int sizeY = mine.max.getY() - mine.min.getY();
+        int sizeZ = mine.max.getZ() - mine.min.getZ() - 1;
+        BlockState[] palette = palette(samplers);
+        String definition = mine.min + "|" + mine.max + "|" + mine.distribution + "|" + mine.layers + "|"
+                + Arrays.toString(palette);
+
+        List<Path> files = new ArrayList<>(count);
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            byte[] digest = digest(definition + "|" + (seed + i));
+            keys[i] = ByteBuffer.wrap(digest).getLong(16);
+            files.add(storageDir == null ? null : storageDir.resolve(HexFormat.of().formatHex(digest, 0, 16) + ".bin"));
+        }
+        CompletableFuture<Void> cleaned = storageDir == null
+                ? CompletableFuture.completedFuture(null)
+                : CompletableFuture.runAsync(() -> deleteExcept(storageDir, files), Util.ioPool());
+
+        // one variant at a time: each plan is spread over the whole pool anyway, and only
+        // one unpacked plan is held in memory instead of one per variant
+        CompletableFuture<MineFillVariants> result = MineFillPlanner.track(new CompletableFuture<>());
+        CompletableFuture<List<PackedFillPattern>> chain = cleaned.thenApply(ignored -> new ArrayList<>(count));
+        for (int i = 0; i < count; i++) {
+            long variantSeed = seed + i;
+            Path file = files.get(i);
+            long key = keys[i];
+            chain = chain.thenCompose(patterns -> result.isDone()
+                    // cancelled, e.g. by the planner shutting down: skip the remaining variants
+                    ? CompletableFuture.failedFuture(new CancellationException())
+                    : variant(mine, samplers, palette, variantSeed, file, key,
+                            originX, originY, originZ, sizeX, sizeY, sizeZ).thenApply(pattern -> {
+                        patterns.add(pattern);
+                        return patterns;
+                    }));
+        }
+        chain.whenComplete((patterns, error) -> {
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(new MineFillVariants(samplers, List.copyOf(patterns), originX, originY, originZ));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Opens the stored file of one variant, or plans and packs the variant if there
+     * is no usable file.
+     */
+    private static CompletableFuture<PackedFillPattern> variant(Mine mine, BlockSampler[] samplers, BlockState[] palette,
+                                                                long seed, @Nullable Path file, long key,
+                                                                int originX, int originY, int originZ,
+                                                                int sizeX, int sizeY, int sizeZ) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return file == null ? null : PackedFillPattern.open(file, palette, sizeX, sizeY, sizeZ, key);
+            } catch (Exception ex) {
+                throw new CompletionException(ex);
+            }
+        }, MineFillPlanner.pool()).thenCompose(existing -> existing != null
+                ? CompletableFuture.completedFuture(existing)
+                : MineFillPlanner.plan(samplers, mine, seed).thenApplyAsync(plan -> {
+                    try {
+                        return PackedFillPattern.pack(plan, palette, originX, originY, originZ, sizeX, sizeY, sizeZ, file, key);
+                    } catch (Exception ex) {
+                        throw new CompletionException(ex);
+                    }
+                }, MineFillPlanner.pool()));
+    }
+
+    /**
+     * Deletes the pattern files of a mine that no longer exists, in the background.
+     */
+    static void deleteStorage(Path storageDir) {
+        Util.ioPool().execute(() -> {
+            deleteExcept(storageDir, List.of());
+            try {
+                Files.deleteIfExists(storageDir);
+            } catch (IOException e) {
+                AkashicRecords.LOGGER.debug("Could not delete pattern directory {}", storageDir, e);
+            }
+        });
+    }
+
+    /**
+     * Deletes every file in {@code dir} except {@code keep}.  Files that cannot be
+     * deleted, e.g. because another thread still maps them on Windows, are left for
+     * the next call.
+     */
+    private static void deleteExcept(Path dir, List<Path> keep) {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path file : stream) {
+                if (!keep.contains(file)) {
+                    try {
+                        Files.deleteIfExists(file);
+                    } catch (IOException e) {
+                        AkashicRecords.LOGGER.debug("Could not delete stale pattern file {}", file, e);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            AkashicRecords.LOGGER.warn("Could not clean up pattern directory {}", dir, e);
+        }
+    }
+
+    private static byte[] digest(String text) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Every state any of the samplers can produce, in a stable order.
+     */
+    private static BlockState[] palette(BlockSampler[] samplers) {
+        Set<BlockState> states = new LinkedHashSet<>();
+        for (BlockSampler sampler : samplers) {
+            for (int i = 0; i < sampler.size(); i++) {
+                states.add(sampler.state(i));
+            }
+        }
+        return states.toArray(new BlockState[0]);
+    }
+
+    /**
+     * Whether these variants were generated from {@code samplers} and there are
+     * {@code count} of them.
+     */
+    boolean matches(BlockSampler[] samplers, int count) {
+        return this.samplers == samplers && patterns.size() == count;
+    }
+
+    /**
+     * The source for the next reset.
+     */
+    FillSource next() {
+        int n = patterns.size();
+        int current = turn++;
+        int mirror = (current / n) & 3;
+        if (turn >= n * 4) {
+            turn = 0;
+        }
+        return patterns.get(current % n).view(originX, originY, originZ, (mirror & 1) != 0, (mirror & 2) != 0);
+    }
+}
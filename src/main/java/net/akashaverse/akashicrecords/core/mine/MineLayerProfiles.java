@@ -0,0 +1,178 @@
+package net.akashaverse.akashicrecords.core.mine;
+
+import net.neoforged.neoforge.common.Tags;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled per‑layer samplers shared between mines.  A profile is one
+ * {@link BlockSampler} per interior Y level, built from a distribution, optional
+ * layers and the interior height; every mine with the same three (in practice
+ * every mine of the same {@link MineType} and height) gets the same immutable array.
+ * <p>
+ * Vein mines use a {@link MineVeinProfile} instead, cached the same way.
+ * <p>
+ * Keys hold copies of the definition, so a profile never changes after it is
+ * compiled.  Mines copy their type's definition when they are created, so reloading
+ * the mine types leaves their profiles alone.  Vein profiles also depend on the
+ * {@code c:ores} tag and are dropped by {@link #invalidate()} when the tags reload.
+ */
+public class MineLayerProfiles {
+    private static final MineLayerProfiles INSTANCE = new MineLayerProfiles();
+
+    /** {@code veinSize} is 0 for plain profiles */
+    private record Key(List<WeightedBlock> distribution, List<MineLayer> layers, int height, int veinSize) {}
+
+    private final Map<Key, BlockSampler[]> profiles = new ConcurrentHashMap<>();
+    private final Map<Key, MineVeinProfile> veinProfiles = new ConcurrentHashMap<>();
+
+    MineLayerProfiles() {}
+
+    public static MineLayerProfiles get() {
+        return INSTANCE;
+    }
+
+    /**
+     * The shared profile for the given definition, compiling it on first use.  The
+     * returned array must not be modified.
+     */
+    BlockSampler[] profile(List<WeightedBlock> distribution, @Nullable List<MineLayer> layers, int height) {
+        Key key = new Key(List.copyOf(distribution), copy(layers), height, 0);
+        return profiles.computeIfAbsent(key, k -> compile(k.distribution(), k.layers(), k.height()));
+    }
+
+    /**
+     * The shared vein profile for the given definition and vein size, compiling it on
+     * first use.
+     */
+    MineVeinProfile veinProfile(List<WeightedBlock> distribution, @Nullable List<MineLayer> layers, int height,
+                                int veinSize) {
+        Key key = new Key(List.copyOf(distribution), copy(layers), height, veinSize);
+        return veinProfiles.computeIfAbsent(key,
+                k -> compileVeins(k.distribution(), k.layers(), k.height(), k.veinSize()));
+    }
+
+    /**
+     * An immutable copy of {@code layers} and their distributions, so a key cannot
+     * change after it is stored.
+     */
+    private static List<MineLayer> copy(@Nullable List<MineLayer> layers) {
+        if (layers == null) {
+            return List.of();
+        }
+        List<MineLayer> copy = new ArrayList<>(layers.size());
+        for (MineLayer layer : layers) {
+            copy.add(new MineLayer(List.copyOf(layer.distribution())));
+        }
+        return List.copyOf(copy);
+    }
+
+    /**
+     * Drops every compiled profile, e.g. when a datapack reload may have changed which
+     * blocks are tagged {@code c:ores}.  Safe to call from any thread.
+     */
+    public void invalidate() {
+        profiles.clear();
+        veinProfiles.clear();
+    }
+
+    public int size() {
+        return profiles.size() + veinProfiles.size();
+    }
+
+    /**
+     * Compiles a profile from scratch.  Layered definitions get a blended sampler per
+     * Y level; otherwise every level shares one sampler of the distribution.
+     */
+    static BlockSampler[] compile(List<WeightedBlock> distribution, @Nullable List<MineLayer> layers, int height) {
+        BlockSampler[] result = new BlockSampler[height];
+        if (layers != null && !layers.isEmpty()) {
+            for (int i = 0; i < height; i++) {
+                result[i] = blendLayer(layers, i, height);
+            }
+        } else {
+            Arrays.fill(result, BlockSampler.compile(distribution));
+        }
+        return result;
+    }
+
+    /**
+     * Compiles a vein profile from scratch: each Y level's weights are split into
+     * ores (blocks tagged {@code c:ores}) and host blocks, and the ores' share of the
+     * total weight becomes the level's noise threshold for veins of {@code veinSize}.
+     */
+    static MineVeinProfile compileVeins(List<WeightedBlock> distribution, @Nullable List<MineLayer> layers, int height,
+                                        int veinSize) {
+        BlockSampler[] hosts = new BlockSampler[height];
+        BlockSampler[] ores = new BlockSampler[height];
+        float[] thresholds = new float[height];
+        boolean layered = layers != null && !layers.isEmpty();
+        for (int i = 0; i < height; i++) {
+            if (!layered && i > 0) {
+                hosts[i] = hosts[0];
+                ores[i] = ores[0];
+                thresholds[i] = thresholds[0];
+                continue;
+            }
+            Map<String, Double> weights = layered ? blendWeights(layers, i, height) : weights(distribution);
+            Map<String, Double> hostWeights = new HashMap<>();
+            Map<String, Double> oreWeights = new HashMap<>();
+            double oreTotal = 0.0;
+            double total = 0.0;
+            for (Map.Entry<String, Double> entry : weights.entrySet()) {
+                double scaled = BlockSampler.scaledWeight(entry.getValue());
+                total += scaled;
+                if (BlockSampler.resolve(entry.getKey()).is(Tags.Blocks.ORES)) {
+                    oreWeights.put(entry.getKey(), entry.getValue());
+                    oreTotal += scaled;
+                } else {
+                    hostWeights.put(entry.getKey(), entry.getValue());
+                }
+            }
+            hosts[i] = BlockSampler.compile(hostWeights);
+            ores[i] = BlockSampler.compile(oreWeights);
+            thresholds[i] = VeinNoise.threshold(total == 0.0 ? 0.0 : oreTotal / total, veinSize);
+        }
+        return new MineVeinProfile(hosts, ores, thresholds);
+    }
+
+    /**
+     * Blends the two layers around interior level {@code index} (0 at the bottom)
+     * by its position between them.
+     */
+    static BlockSampler blendLayer(List<MineLayer> layers, int index, int height) {
+        return BlockSampler.compile(blendWeights(layers, index, height));
+    }
+
+    private static Map<String, Double> blendWeights(List<MineLayer> layers, int index, int height) {
+        int layerCount = layers.size();
+        double position = (double) index / Math.max(1.0, height - 1);
+        double scaled = position * (layerCount - 1);
+        int idx = (int) Math.floor(scaled);
+        double t = scaled - idx;
+        MineLayer layer1 = layers.get(Math.min(idx, layerCount - 1));
+        MineLayer layer2 = layers.get(Math.min(idx + 1, layerCount - 1));
+        Map<String, Double> combined = new HashMap<>();
+        for (WeightedBlock wb : layer1.distribution()) {
+            combined.merge(wb.blockId(), wb.weight() * (1.0 - t), Double::sum);
+        }
+        for (WeightedBlock wb : layer2.distribution()) {
+            combined.merge(wb.blockId(), wb.weight() * t, Double::sum);
+        }
+        return combined;
+    }
+
+    private static Map<String, Double> weights(List<WeightedBlock> distribution) {
+        Map<String, Double> weights = new HashMap<>();
+        for (WeightedBlock wb : distribution) {
+            weights.merge(wb.blockId(), wb.weight(), Double::sum);
+        }
+        return weights;
+    }
+}
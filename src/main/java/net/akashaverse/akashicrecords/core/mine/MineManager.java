@@ -1,25 +1,35 @@
 package net.akashaverse.akashicrecords.core.mine;
 
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.longs.LongLinkedOpenHashSet;
+import net.akashaverse.akashicrecords.AkashicRecords;
+import net.akashaverse.akashicrecords.configs.MineConfig;
+import net.akashaverse.akashicrecords.core.mine.metrics.MineEvictionEvent;
+import net.akashaverse.akashicrecords.core.mine.metrics.MineWarningEvent;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.HolderLookup;
-import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.nbt.CompoundTag;
-import net.minecraft.nbt.ListTag;
-import net.minecraft.nbt.StringTag;
-import net.minecraft.nbt.Tag;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.saveddata.SavedData;
-import net.minecraft.world.level.block.Blocks;
-import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.storage.LevelResource;
 import net.minecraft.network.chat.Component;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 public class MineManager extends SavedData {
     public static final String DATA_NAME = "akashic_mine_manager";
@@ -28,105 +38,630 @@ public class MineManager extends SavedData {
 
     private final Map<String, Mine> mines = new HashMap<>();
 
+    /** players evicted from a mine whose time‑sliced reset has not finished yet */
+    private final Map<Mine, List<ServerPlayer>> resetAudience = new HashMap<>();
+
+    /** chunk index used to find the mine at a position and the players inside a mine */
+    private final MineSpatialIndex index = new MineSpatialIndex();
+
+    /** mines whose time‑sliced regeneration is in progress */
+    private final Map<String, Mine> regenerating = new LinkedHashMap<>();
+
+    /** loaded chunks that hold part of a mine with a pending lazy reset */
+    private final LongLinkedOpenHashSet pendingChunkLoads = new LongLinkedOpenHashSet();
+
+    /** terrain restores of deleted mines in progress, see {@link #restoreMine} */
+    private final List<MineRestoreTask> restores = new ArrayList<>();
+
+    /** mines in the order the border verifier visits them, see {@link #verifyBorders} */
+    private final ArrayDeque<String> borderQueue = new ArrayDeque<>();
+
+    /** latest published copy of {@link #mines} for readers on other threads */
+    private volatile MineRegistrySnapshot snapshot = MineRegistrySnapshot.EMPTY;
+    /** names whose mine changed since {@link #snapshot} was published */
+    private final Set<String> unpublished = new HashSet<>();
+
+    /** level this manager belongs to and the scheduler its deadlines are queued on */
+    private ServerLevel level;
+    private MineScheduler scheduler;
+
     public MineManager() {}
 
     public static MineManager get(ServerLevel level) {
         SavedData.Factory<MineManager> factory =
                 new SavedData.Factory<>(MineManager::new, MineManager::load, null);
-        return level.getDataStorage().computeIfAbsent(factory, DATA_NAME);
+        MineManager manager = level.getDataStorage().computeIfAbsent(factory, DATA_NAME);
+        if (manager.level != level) {
+            manager.attach(level, MineScheduler.get());
+        }
+        return manager;
+    }
+
+    /**
+     * Binds this manager to its level and queues the deadlines of every mine it holds.
+     */
+    void attach(ServerLevel level, MineScheduler scheduler) {
+        this.level = level;
+        this.scheduler = scheduler;
+        mines.forEach((name, mine) -> {
+            loadTemplate(mine);
+            scheduler.schedule(this, name, mine);
+        });
+        if (!mines.isEmpty()) {
+            scheduler.markBorders(this);
+        }
+        if (!regenerating.isEmpty() || !restores.isEmpty()) {
+            scheduler.markRegenerating(this);
+        }
     }
 
     public void putMine(String name, Mine mine) {
-        mines.put(name, mine);
-        setDirty();
+        addMine(name, mine);
+        publish();
     }
 
     public Mine getMine(String name) {
         return mines.get(name);
     }
 
+    /**
+     * Removes a mine and leaves its terrain as it is.  Its {@link MineSnapshots snapshot}
+     * is deleted with it, since nothing can restore it anymore.
+     */
     public void removeMine(String name) {
-        mines.remove(name);
+        Mine removed = discardMine(name);
+        if (removed != null && level != null) {
+            MineSnapshots.delete(level, removed.min, removed.max);
+        }
+    }
+
+    /**
+     * Removes a mine and puts back the terrain it replaced from its
+     * {@link MineSnapshots snapshot}.  The terrain is written over the following ticks
+     * within the regeneration budget.  Restores in progress are saved with the mines
+     * and continue where they left off after a restart.
+     *
+     * @return false if there is no mine called {@code name} or it has no snapshot
+     */
+    public boolean restoreMine(String name) {
+        Mine mine = mines.get(name);
+        if (mine == null || !MineSnapshots.exists(level, mine.min, mine.max)) {
+            return false;
+        }
+        discardMine(name);
+        restores.add(new MineRestoreTask(this, name, mine, 0));
+        if (scheduler != null) {
+            scheduler.markRegenerating(this);
+        }
+        return true;
+    }
+
+    /**
+     * Moves a mine to a new name.  Readers of {@link #snapshot()} see either the old
+     * or the new name, never both or neither.
+     *
+     * @return false if there is no mine called {@code oldName}
+     */
+    public boolean renameMine(String oldName, String newName) {
+        Mine mine = deleteMine(oldName);
+        if (mine == null) {
+            return false;
+        }
+        addMine(newName, mine);
+        publish();
+        return true;
+    }
+
+    /**
+     * Sets the structure template a mine copies, or null to sample its distribution,
+     * and the size of its ore veins, 0 for none.  The next regeneration uses them.
+     */
+    public void setFill(String name, @Nullable ResourceLocation template, int veinSize) {
+        Mine mine = mines.get(name);
+        if (mine != null) {
+            mine.setTemplate(template);
+            mine.setVeinSize(veinSize);
+            mine.useTemplate(null);
+            if (level != null) {
+                loadTemplate(mine);
+            }
+            mine.discardPreparedFill();
+            unpublished.add(name);
+            setDirty();
+            publish();
+        }
+    }
+
+    /**
+     * Publishes every mine again so that {@link #snapshot()} carries current
+     * statistics, e.g. before an export reads them on another thread.
+     */
+    public void publishStats() {
+        unpublished.addAll(mines.keySet());
+        publish();
+    }
+
+    /**
+     * Moves the entrance players are teleported to when the mine resets.
+     */
+    public void setEntrance(String name, BlockPos entrance) {
+        Mine mine = mines.get(name);
+        if (mine != null) {
+            mine.setEntrance(entrance);
+            unpublished.add(name);
+            setDirty();
+            publish();
+        }
+    }
+
+    private void addMine(String name, Mine mine) {
+        Mine previous = mines.put(name, mine);
+        if (previous != null) {
+            index.remove(previous);
+        }
+        index.add(name, mine);
+        if (!borderQueue.contains(name)) {
+            borderQueue.addLast(name);
+        }
+        if (scheduler != null) {
+            loadTemplate(mine);
+            scheduler.schedule(this, name, mine);
+            scheduler.markBorders(this);
+        }
+        unpublished.add(name);
         setDirty();
     }
 
+    private void loadTemplate(Mine mine) {
+        if (mine.template() != null && !mine.usesTemplate()) {
+            mine.useTemplate(MineTemplates.get().pattern(level, mine.template()));
+        }
+    }
+
+    /**
+     * Deletes a mine with its stored fill variants and publishes the change.
+     */
+    private @Nullable Mine discardMine(String name) {
+        Mine removed = deleteMine(name);
+        if (removed != null && level != null) {
+            MineFillVariants.deleteStorage(patternDirectory(removed));
+        }
+        publish();
+        return removed;
+    }
+
+    private @Nullable Mine deleteMine(String name) {
+        Mine removed = mines.remove(name);
+        if (removed != null) {
+            removed.discardPreparedFill();
+            index.remove(removed);
+            resetAudience.remove(removed);
+            regenerating.remove(name, removed);
+            unpublished.add(name);
+        }
+        setDirty();
+        return removed;
+    }
+
+    /**
+     * The live mines of this level.  Only for the server thread; other threads should
+     * read {@link #snapshot()} instead.
+     */
     public Map<String, Mine> getMines() {
-        return mines;
+        return Collections.unmodifiableMap(mines);
     }
 
-    public void tick(ServerLevel level) {
-        long gameTime = level.getGameTime();
-        for (Map.Entry<String, Mine> entry : mines.entrySet()) {
-            Mine mine = entry.getValue();
+    /**
+     * The latest published snapshot of this level's mines.  Safe to call and iterate
+     * from any thread.  Changes made by commands are published immediately; reset
+     * times and border state changed by resets are published at the end of the tick.
+     */
+    public MineRegistrySnapshot snapshot() {
+        return snapshot;
+    }
 
-            if (mine.nextReset > 0 && gameTime == mine.nextReset - mine.warningTicks) {
-                warnPlayers(level, mine, mine.warningTicks / 20);
+    /**
+     * Publishes a new snapshot if any mine changed since the last one.  Only the
+     * changed entries are copied again.
+     */
+    void publish() {
+        if (unpublished.isEmpty()) {
+            return;
+        }
+        MineRegistrySnapshot previous = snapshot;
+        Map<String, MineDefinition> next = new HashMap<>(previous.mines());
+        for (String name : unpublished) {
+            Mine mine = mines.get(name);
+            if (mine == null) {
+                next.remove(name);
+            } else {
+                next.put(name, MineDefinition.of(name, mine));
             }
+        }
+        unpublished.clear();
+        snapshot = new MineRegistrySnapshot(previous.version() + 1, Collections.unmodifiableMap(next));
+    }
 
-            if (mine.nextReset > 0 && gameTime >= mine.nextReset) {
-                java.util.List<ServerPlayer> affected = new java.util.ArrayList<>();
-                for (ServerPlayer p : level.players()) {
-                    if (mine.contains(p.blockPosition())) {
-                        affected.add(p);
-
-                        double destX = mine.entrance.getX() + 0.5;
-                        double destY = mine.entrance.getY();
-                        double destZ = mine.entrance.getZ() + 0.5;
-                        double centerX = (mine.min.getX() + mine.max.getX()) / 2.0 + 0.5;
-                        double centerZ = (mine.min.getZ() + mine.max.getZ()) / 2.0 + 0.5;
-                        double dx = centerX - destX;
-                        double dz = centerZ - destZ;
-                        float yaw = (float) (Math.atan2(dz, dx) * (180.0 / Math.PI)) - 90.0F;
-                        float pitch = 0.0F;
-                        p.teleportTo(level, destX, destY, destZ, yaw, pitch);
-                    }
-                }
+    /**
+     * Picks the next reset time of a mine from now and queues its deadlines, e.g. after
+     * a fill that ran outside the scheduler.
+     */
+    public void scheduleNextReset(String name) {
+        Mine mine = mines.get(name);
+        if (mine == null) {
+            return;
+        }
+        mine.setNextReset(mine.nextResetAfter(level.getGameTime(), MineConfig.RESET_JITTER_PERCENT.get()));
+        if (scheduler != null) {
+            scheduler.schedule(this, name, mine);
+        }
+        unpublished.add(name);
+        setDirty();
+        publish();
+    }
+
+    /**
+     * Resets a mine on the next tick instead of at its scheduled time, without a
+     * warning.  A seed repeats the regeneration that recorded it in {@link Mine#lastSeed()}:
+     * that reset is always a full one from the mine's own fill, never a delta, lazy or
+     * pattern variant reset, since those do not derive the whole interior from the seed.
+     * A seed recorded by one of those gives the full fill it would have made instead.
+     *
+     * @return false if there is no mine called {@code name}
+     */
+    public boolean resetNow(String name, @Nullable Long seed) {
+        Mine mine = mines.get(name);
+        if (mine == null) {
+            return false;
+        }
+        if (seed != null) {
+            mine.pinNextSeed(seed);
+        }
+        mine.setNextReset(Math.max(1L, level.getGameTime()));
+        if (scheduler != null) {
+            scheduler.schedule(this, name, mine);
+        }
+        unpublished.add(name);
+        setDirty();
+        publish();
+        return true;
+    }
+
+    /**
+     * The mine containing {@code pos}, or null if there is none.
+     */
+    public @Nullable Mine getMineAt(BlockPos pos) {
+        return index.mineAt(pos);
+    }
+
+    /**
+     * Sends the reset warning for a mine.  Called by the {@link MineScheduler} once the
+     * warning deadline has passed, even if the exact tick was missed.
+     */
+    void onWarning(String name, Mine mine, long gameTime) {
+        long ticksLeft = mine.nextReset() - gameTime;
+        if (ticksLeft <= 0 || skipsReset(mine)) {
+            return;
+        }
+        if (MineConfig.PREPARE_DURING_WARNING.get() && MineConfig.PATTERN_VARIANTS.get() == 0 && !deltaReset(mine)) {
+            // the countdown is idle time, use it to plan the fill
+            mine.prepareNextFill();
+        }
+        MineWarningEvent event = new MineWarningEvent();
+        event.begin();
+        long start = System.nanoTime();
+        int players = warnPlayers(level, mine, (int) ((ticksLeft + 19) / 20));
+        mine.stats.warned(System.nanoTime() - start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.mine = name;
+            event.players = players;
+            event.commit();
+        }
+    }
+
+    /**
+     * Evicts the players inside a mine and starts its regeneration.  Called by the
+     * {@link MineScheduler} once {@link Mine#nextReset()} has passed.
+     */
+    void onReset(String name, Mine mine, RegenBudget budget) {
+        if (skipsReset(mine)) {
+            mine.discardPreparedFill();
+            mine.skippedReset();
+            mine.stats.skippedResets++;
+            finishReset(name, mine);
+            return;
+        }
+        if (MineConfig.LAZY_UNLOADED_RESETS.get() && mine.isBorderBuilt() && !mine.hasPinnedSeed()
+                && !mine.hasLoadedChunk(level)) {
+            // nobody can be inside; refill each chunk when it loads again
+            mine.deferReset();
+            mine.stats.deferredResets++;
+            finishReset(name, mine);
+            return;
+        }
+        List<ServerPlayer> affected = evictPlayers(name, mine, null);
+        resetAudience.put(mine, affected);
+
+        // a busy server never gets a whole mine in one tick, even if slicing is off
+        if (MineConfig.TIME_SLICED_REGEN.get() || RegenAdmission.get().throttled()) {
+            beginRegeneration(name, mine);
+            if (budget.exhausted() || !mine.continueRegeneration(level, budget)) {
+                return;
+            }
+            regenerating.remove(name, mine);
+        } else if (deltaReset(mine)) {
+            mine.beginDeltaRegeneration(MineFillOrder.TOP_DOWN);
+            mine.continueRegeneration(level, RegenBudget.unlimited());
+        } else {
+            mine.regenerate(level, MineConfig.FILL_BACKEND.get());
+        }
+        finishReset(name, mine);
+    }
+
+    /**
+     * Teleports the players inside {@code mine} to its entrance, facing the centre, before
+     * its interior is rewritten.  With a {@code chunk} only the players standing in that
+     * chunk are moved, for a lazy reset that refills one chunk at a time.
+     *
+     * @return the evicted players
+     */
+    List<ServerPlayer> evictPlayers(String name, Mine mine, @Nullable ChunkPos chunk) {
+        MineEvictionEvent eviction = new MineEvictionEvent();
+        eviction.begin();
+        long evictionStart = System.nanoTime();
+        List<ServerPlayer> affected = MineSpatialIndex.playersInside(level, mine);
+        if (chunk != null) {
+            affected.removeIf(p -> !p.chunkPosition().equals(chunk));
+        }
+        for (ServerPlayer p : affected) {
+            BlockPos entrance = mine.entrance();
+            double destX = entrance.getX() + 0.5;
+            double destY = entrance.getY();
+            double destZ = entrance.getZ() + 0.5;
+            double centerX = (mine.min.getX() + mine.max.getX()) / 2.0 + 0.5;
+            double centerZ = (mine.min.getZ() + mine.max.getZ()) / 2.0 + 0.5;
+            double dx = centerX - destX;
+            double dz = centerZ - destZ;
+            float yaw = (float) (Math.atan2(dz, dx) * (180.0 / Math.PI)) - 90.0F;
+            float pitch = 0.0F;
+            p.teleportTo(level, destX, destY, destZ, yaw, pitch);
+        }
+        mine.stats.evicted(System.nanoTime() - evictionStart, affected.size());
+        eviction.end();
+        if (eviction.shouldCommit()) {
+            eviction.mine = name;
+            eviction.players = affected.size();
+            eviction.commit();
+        }
+        return affected;
+    }
+
+    private static boolean deltaReset(Mine mine) {
+        return MineConfig.RESET_MODE.get() == MineResetMode.DELTA && mine.tracksChanges()
+                && !mine.hasPinnedSeed() && !mine.needsFullReset(MineConfig.DELTA_FULL_RESET_EVERY.get());
+    }
 
-                mine.regenerate(level);
+    /**
+     * Returns true if a delta reset is due but nothing in the mine has changed.
+     */
+    private static boolean skipsReset(Mine mine) {
+        return deltaReset(mine) && mine.changedBlocks() == 0;
+    }
 
-                Component resetMsg = Component.literal("Mine '" + entry.getKey() + "' has been reset.");
-                for (ServerPlayer p : affected) {
-                    if (!p.getPersistentData().getBoolean(TAG_HIDE_MINE_MESSAGES)) {
-                        p.sendSystemMessage(resetMsg);
-                    }
+    /**
+     * Advances every in‑progress regeneration and terrain restore of this level within
+     * the budget.
+     *
+     * @return true while at least one regeneration or restore is still running
+     */
+    boolean continueRegenerations(RegenBudget budget) {
+        applyPendingChunks(budget);
+        Iterator<Map.Entry<String, Mine>> it = regenerating.entrySet().iterator();
+        while (it.hasNext() && !budget.exhausted()) {
+            Map.Entry<String, Mine> entry = it.next();
+            if (entry.getValue().continueRegeneration(level, budget)) {
+                it.remove();
+                finishReset(entry.getKey(), entry.getValue());
+            }
+        }
+        Iterator<MineRestoreTask> restoring = restores.iterator();
+        while (restoring.hasNext() && !budget.exhausted()) {
+            if (restoring.next().advance(level, budget)) {
+                restoring.remove();
+                setDirty();
+            }
+        }
+        return !regenerating.isEmpty() || !pendingChunkLoads.isEmpty() || !restores.isEmpty();
+    }
+
+    /**
+     * Checks the borders of this level's mines for damage within {@code budget}
+     * positions.  Mines take turns: one keeps the verifier until it finishes a pass
+     * over its border or the budget runs out, then the next one continues.
+     *
+     * @return the part of the budget used
+     */
+    public int verifyBorders(int budget) {
+        int used = 0;
+        for (int visited = borderQueue.size(); visited > 0 && used < budget; visited--) {
+            String name = borderQueue.pollFirst();
+            Mine mine = mines.get(name);
+            if (mine == null) {
+                // deleted or renamed, the new name was queued by addMine
+                continue;
+            }
+            used += mine.verifyBorder(level, budget - used);
+            if (mine.borderPassComplete()) {
+                borderQueue.addLast(name);
+            } else {
+                borderQueue.addFirst(name);
+            }
+        }
+        return used;
+    }
+
+    /**
+     * Queues the lazy resets pending for a chunk that just loaded.  They are applied
+     * by the {@link MineScheduler} on the next tick, within its budget.
+     */
+    public void onChunkLoad(int chunkX, int chunkZ) {
+        List<Mine> inChunk = index.minesIn(chunkX, chunkZ);
+        for (int i = 0; i < inChunk.size(); i++) {
+            if (inChunk.get(i).isPendingChunk(chunkX, chunkZ)) {
+                pendingChunkLoads.add(ChunkPos.asLong(chunkX, chunkZ));
+                if (scheduler != null) {
+                    scheduler.markRegenerating(this);
                 }
+                return;
+            }
+        }
+    }
 
+    private void applyPendingChunks(RegenBudget budget) {
+        if (pendingChunkLoads.isEmpty()) {
+            return;
+        }
+        MineSyncBatch sync = new MineSyncBatch();
+        while (!pendingChunkLoads.isEmpty() && !budget.exhausted()) {
+            long key = pendingChunkLoads.firstLong();
+            int chunkX = ChunkPos.getX(key);
+            int chunkZ = ChunkPos.getZ(key);
+            if (level.getChunkSource().getChunkNow(chunkX, chunkZ) == null) {
+                // unloaded again before we got to it, it is queued again on the next load
+                pendingChunkLoads.removeFirstLong();
+                continue;
+            }
+            boolean done = true;
+            for (Mine mine : index.minesIn(chunkX, chunkZ)) {
+                if (!mine.isPendingChunk(chunkX, chunkZ)) {
+                    continue;
+                }
+                if (!mine.isRefillingChunk(key)) {
+                    // nobody may stand in the chunk while its interior is rewritten
+                    evictPlayers(index.nameOf(mine), mine, new ChunkPos(key));
+                }
+                done &= mine.applyPendingChunk(level, chunkX, chunkZ, sync, budget);
+            }
+            if (done) {
+                pendingChunkLoads.removeFirstLong();
                 setDirty();
             }
         }
+        MineClientSync.get().submit(level, sync);
+    }
+
+    /**
+     * Starts a time‑sliced regeneration of {@code mine} with the configured reset mode,
+     * fill order, backend and planning mode.  The regeneration is continued every tick by the
+     * {@link MineScheduler} until it finishes.
+     */
+    public void beginRegeneration(String name, Mine mine) {
+        MineFillOrder order = MineConfig.FILL_ORDER.get();
+        MineFillBackend backend = MineConfig.FILL_BACKEND.get();
+        regenerating.put(name, mine);
+        if (scheduler != null) {
+            scheduler.markRegenerating(this);
+        }
+        if (deltaReset(mine)) {
+            mine.beginDeltaRegeneration(order);
+            return;
+        }
+        if (mine.beginPreparedRegeneration(order, backend, false)) {
+            return;
+        }
+        if (mine.hasStructuredFill()) {
+            // the planner and the variants only know the layer profile
+            mine.beginRegeneration(order, backend);
+            return;
+        }
+        int variants = MineConfig.PATTERN_VARIANTS.get();
+        // a repeated seed has to be sampled, a variant ignores it
+        if (variants > 0 && !mine.hasPinnedSeed()) {
+            Path storageDir = MineConfig.PATTERN_STORAGE.get() == PatternStorage.MAPPED_FILE
+                    ? patternDirectory(mine)
+                    : null;
+            long seed = HashCommon.murmurHash3(level.getSeed() ^ mine.min.asLong() * 31 + mine.max.asLong());
+            if (mine.beginVariantRegeneration(order, backend, variants, seed, storageDir)) {
+                return;
+            }
+        }
+        if (MineConfig.PARALLEL_PLANNING.get()) {
+            mine.beginPlannedRegeneration(order, backend);
+        } else {
+            mine.beginRegeneration(order, backend);
+        }
+    }
+
+    /**
+     * Directory for this mod's files inside the world save.
+     */
+    public static Path dataDirectory(ServerLevel level) {
+        return level.getServer().getWorldPath(LevelResource.ROOT).resolve("data").resolve(AkashicRecords.MOD_ID);
+    }
+
+    /**
+     * Directory for this mod's files that belong to one dimension, so mines with the
+     * same bounds in different dimensions do not share them.
+     */
+    public static Path levelDirectory(ServerLevel level) {
+        ResourceLocation dimension = level.dimension().location();
+        return dataDirectory(level).resolve("dimensions").resolve(dimension.getNamespace()).resolve(dimension.getPath());
+    }
+
+    /**
+     * Directory for the memory‑mapped fill variants of one mine.
+     */
+    private Path patternDirectory(Mine mine) {
+        return levelDirectory(level).resolve("patterns")
+                .resolve(String.format("%016x_%016x", mine.min.asLong(), mine.max.asLong()));
+    }
+
+    /**
+     * Notifies the players that were evicted when the reset started, picks and queues the
+     * next deadlines and marks the manager dirty so the newly scheduled reset time is saved.
+     */
+    private void finishReset(String name, Mine mine) {
+        mine.stats.commitReset(name);
+        if (MineConfig.LOG_RESET_SEEDS.get()) {
+            AkashicRecords.LOGGER.info("Mine '{}' reset with seed {}", name, mine.lastSeed());
+        }
+        mine.setNextReset(mine.nextResetAfter(level.getGameTime(), MineConfig.RESET_JITTER_PERCENT.get()));
+        unpublished.add(name);
+        if (scheduler != null) {
+            scheduler.schedule(this, name, mine);
+            scheduler.markUnpublished(this);
+        }
+        List<ServerPlayer> affected = resetAudience.remove(mine);
+        if (affected != null) {
+            Component resetMsg = Component.literal("Mine '" + name + "' has been reset.");
+            for (ServerPlayer p : affected) {
+                if (!p.getPersistentData().getBoolean(TAG_HIDE_MINE_MESSAGES)) {
+                    p.sendSystemMessage(resetMsg);
+                }
+            }
+        }
+        setDirty();
     }
 
-    private void warnPlayers(ServerLevel level, Mine mine, int secondsLeft) {
+    /**
+     * @return the number of players inside the mine
+     */
+    private int warnPlayers(ServerLevel level, Mine mine, int secondsLeft) {
         Component msg = Component.literal("Mine resetting in " + secondsLeft + " seconds!");
-        for (ServerPlayer p : level.players()) {
-            if (mine.contains(p.blockPosition())
-                    && !p.getPersistentData().getBoolean(TAG_HIDE_MINE_MESSAGES)) {
+        List<ServerPlayer> players = MineSpatialIndex.playersInside(level, mine);
+        for (ServerPlayer p : players) {
+            if (!p.getPersistentData().getBoolean(TAG_HIDE_MINE_MESSAGES)) {
                 p.sendSystemMessage(msg);
             }
         }
+        return players.size();
     }
 
     @Override
     public @NotNull CompoundTag save(CompoundTag compound, HolderLookup.@NotNull Provider provider) {
-        CompoundTag minesTag = new CompoundTag();
-        mines.forEach((name, mine) -> {
-            CompoundTag tag = new CompoundTag();
-            tag.putIntArray("min", new int[]{mine.min.getX(), mine.min.getY(), mine.min.getZ()});
-            tag.putIntArray("max", new int[]{mine.max.getX(), mine.max.getY(), mine.max.getZ()});
-            tag.putIntArray("entrance", new int[]{mine.entrance.getX(), mine.entrance.getY(), mine.entrance.getZ()});
-            tag.putLong("nextReset", mine.nextReset);
-            tag.putInt("refillInterval", mine.refillIntervalTicks);
-            tag.putInt("warning", mine.warningTicks);
-            tag.putString("border", BuiltInRegistries.BLOCK.getKey(mine.borderBlock.getBlock()).toString());
-            ListTag list = new ListTag();
-            for (WeightedBlock wb : mine.distribution) {
-                list.add(StringTag.valueOf(wb.blockId() + "|" + wb.weight()));
-            }
-            tag.put("distribution", list);
-            tag.putBoolean("borderBuilt", mine.borderBuilt);
-            minesTag.put(name, tag);
-        });
-        compound.put("mines", minesTag);
+        MineCodec.write(mines, compound);
+        MineCodec.writeRestores(restores, compound);
         return compound;
     }
 
@@ -136,42 +671,18 @@ public class MineManager extends SavedData {
 
     public static MineManager load(CompoundTag compound) {
         MineManager manager = new MineManager();
-        CompoundTag minesTag = compound.getCompound("mines");
-        for (String name : minesTag.getAllKeys()) {
-            CompoundTag tag = minesTag.getCompound(name);
-            int[] minArr = tag.getIntArray("min");
-            int[] maxArr = tag.getIntArray("max");
-            int[] entArr = tag.getIntArray("entrance");
-            BlockPos pos1 = new BlockPos(minArr[0], minArr[1], minArr[2]);
-            BlockPos pos2 = new BlockPos(maxArr[0], maxArr[1], maxArr[2]);
-            BlockPos entrance = new BlockPos(entArr[0], entArr[1], entArr[2]);
-            long nextReset = tag.getLong("nextReset");
-            int refillInterval = tag.getInt("refillInterval");
-            int warning = tag.getInt("warning");
-            String borderId = tag.getString("border");
-            BlockState border;
-            try {
-                var key = ResourceLocation.parse(borderId);
-                border = BuiltInRegistries.BLOCK.getOptional(key).orElse(Blocks.BEDROCK).defaultBlockState();
-            } catch (Exception ex) {
-                border = Blocks.BEDROCK.defaultBlockState();
-            }
-            ListTag distList = tag.getList("distribution", Tag.TAG_STRING);
-            List<WeightedBlock> distribution = distList.stream().map(Tag::getAsString).map(str -> {
-                String[] parts = str.split("\\|");
-                String id = parts.length > 0 ? parts[0] : "minecraft:stone";
-                double weight = 1.0;
-                if (parts.length > 1) {
-                    try { weight = Double.parseDouble(parts[1]); } catch (NumberFormatException ignored) {}
-                }
-                return new WeightedBlock(id, weight);
-            }).collect(Collectors.toList());
-            Mine mine = new Mine(pos1, pos2, entrance, refillInterval, warning, border, distribution);
-            mine.nextReset = nextReset;
-            if (tag.contains("borderBuilt")) {
-                mine.borderBuilt = tag.getBoolean("borderBuilt");
-            }
+        int version = MineCodec.read(compound, (name, mine) -> {
             manager.mines.put(name, mine);
+            manager.index.add(name, mine);
+            manager.borderQueue.addLast(name);
+            manager.unpublished.add(name);
+        });
+        MineCodec.readRestores(compound, version, (name, mine, cursor) ->
+                manager.restores.add(new MineRestoreTask(manager, name, mine, cursor)));
+        manager.publish();
+        if (version < MineCodec.VERSION) {
+            // rewrite the migrated data in the current version even if no mine changes
+            manager.setDirty();
         }
         return manager;
     }
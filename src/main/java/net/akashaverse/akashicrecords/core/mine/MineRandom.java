@@ -0,0 +1,69 @@
+package net.akashaverse.akashicrecords.core.mine;
+
+/**
+ * Random numbers for filling a mine.  A SplitMix64 generator, the algorithm behind
+ * {@link java.util.SplittableRandom}: one {@code long} of state, no synchronisation
+ * and no allocation, so a regeneration can draw a value per block without touching
+ * the level's shared {@code RandomSource} and without disturbing its sequence.
+ * <p>
+ * Every regeneration gets its own generator from a seed that {@link Mine#lastSeed()}
+ * records, so a reset can be repeated exactly with {@code /mine reset <name> <seed>}.
+ * Work handed to other threads takes a {@link #split()} or a generator seeded from
+ * the reset seed and its own position, never the same instance.
+ */
+public final class MineRandom {
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final long seed;
+    private long state;
+
+    public MineRandom(long seed) {
+        this.seed = seed;
+        this.state = seed;
+    }
+
+    /**
+     * The seed this generator started from.
+     */
+    public long seed() {
+        return seed;
+    }
+
+    public long nextLong() {
+        return mix(state += GOLDEN_GAMMA);
+    }
+
+    /**
+     * Fills {@code out[0..count)} with random values, the same ones {@code count}
+     * calls to {@link #nextLong()} would return.
+     */
+    public void fill(long[] out, int count) {
+        long s = state;
+        for (int i = 0; i < count; i++) {
+            out[i] = mix(s += GOLDEN_GAMMA);
+        }
+        state = s;
+    }
+
+    /**
+     * A new generator whose values are independent of this one's, for handing work
+     * to another thread.  Advances this generator by one value.
+     */
+    public MineRandom split() {
+        return new MineRandom(mix(nextLong()));
+    }
+
+    /**
+     * A generator for one part of a fill, e.g. a tile or chunk identified by
+     * {@code key}, that does not depend on the order the parts are filled in.
+     */
+    public static MineRandom derive(long seed, long key) {
+        return new MineRandom(mix(seed ^ mix(key + GOLDEN_GAMMA)));
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
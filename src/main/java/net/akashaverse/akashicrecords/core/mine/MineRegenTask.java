@@ -0,0 +1,153 @@
+package net.akashaverse.akashicrecords.core.mine;
+
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.akashaverse.akashicrecords.AkashicRecords;
+import net.akashaverse.akashicrecords.core.mine.metrics.MineStats;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Cursor over the interior of a {@link Mine} that is being regenerated.  A task
+ * can be advanced a few thousand blocks per tick and resumed on the next tick
+ * exactly where it stopped.  Subclasses decide how blocks reach the world, see
+ * {@link MineFillBackend}.
+ * <p>
+ * Blocks come from a {@link FillSource}.  Sources that are computed off thread,
+ * such as a {@link MineFillPlan}, are passed as a future; the task does nothing
+ * until it completes.
+ */
+abstract class MineRegenTask {
+    protected final Mine mine;
+    protected final MineFillOrder order;
+    /** this regeneration's own generator, see {@link MineRandom} */
+    protected final MineRandom random;
+    private CompletableFuture<? extends FillSource> pendingSource;
+    private FillSource source;
+    /** used when the pending source fails to complete */
+    private final FillSource fallback;
+    /** blocks written without notifying clients, sent after every slice */
+    protected final MineSyncBatch sync = new MineSyncBatch();
+    /** every section and chunk the task has changed so far, for {@link MineStats} */
+    private final LongSet touchedSections = new LongOpenHashSet();
+    private final LongSet touchedChunks = new LongOpenHashSet();
+
+    protected MineRegenTask(Mine mine, MineFillOrder order, MineRandom random, FillSource fallback,
+                            CompletableFuture<? extends FillSource> pendingSource) {
+        this.mine = mine;
+        this.order = order;
+        this.random = random;
+        this.fallback = fallback;
+        this.pendingSource = pendingSource;
+        this.source = pendingSource == null ? fallback : null;
+    }
+
+    static MineRegenTask create(Mine mine, MineFillOrder order, MineFillBackend backend, MineRandom random,
+                                FillSource fallback, CompletableFuture<? extends FillSource> pendingSource) {
+        return switch (backend) {
+            case SET_BLOCK -> new BlockRegenTask(mine, order, random, fallback, pendingSource);
+            case CHUNK_SECTION -> new SectionRegenTask(mine, order, random, fallback, pendingSource);
+        };
+    }
+
+    /**
+     * Writes blocks until either the interior is complete or the budget is
+     * exhausted.  While the block source is still being computed nothing is written.
+     *
+     * @return true once every interior block has been written
+     */
+    final boolean advance(ServerLevel level, RegenBudget budget) {
+        if (pendingSource != null) {
+            if (!pendingSource.isDone()) {
+                return false;
+            }
+            try {
+                source = pendingSource.join();
+            } catch (CompletionException | CancellationException ex) {
+                AkashicRecords.LOGGER.error("Planning a mine regeneration failed, sampling on the server thread instead", ex);
+                source = fallback;
+            }
+            pendingSource = null;
+        }
+        boolean done = write(level, budget);
+        flush(level);
+        return done;
+    }
+
+    /**
+     * Queues the blocks written by the last slice for the clients, so players see a
+     * time‑sliced reset come back in its fill order rather than all at the end.
+     * {@link MineClientSync} keeps the traffic within its byte budget.
+     */
+    private void flush(ServerLevel level) {
+        if (sync.isEmpty()) {
+            return;
+        }
+        LongIterator it = sync.sections().keySet().iterator();
+        while (it.hasNext()) {
+            long section = it.nextLong();
+            touchedSections.add(section);
+            touchedChunks.add(ChunkPos.asLong(SectionPos.x(section), SectionPos.z(section)));
+        }
+        MineClientSync.get().submit(level, sync);
+        sync.clear();
+    }
+
+    int sectionsTouched() {
+        return touchedSections.size();
+    }
+
+    int chunksTouched() {
+        return touchedChunks.size();
+    }
+
+    /**
+     * Hands the work left over by a finished task to subclasses that defer it, e.g.
+     * to the relighter.  The blocks have already reached the client sync.
+     */
+    void complete(ServerLevel level) {
+    }
+
+    /**
+     * Places a single block with neighbour updates but without a packet of its own,
+     * recording it in {@link #sync}.  Blocks with a block entity are placed with
+     * {@code setBlockAndUpdate} so that the block entity data reaches clients.
+     */
+    protected void place(ServerLevel level, BlockPos pos, BlockState state) {
+        if (state.hasBlockEntity()) {
+            level.setBlockAndUpdate(pos, state);
+        } else if (level.setBlock(pos, state, Block.UPDATE_NEIGHBORS)) {
+            sync.add(pos);
+        }
+    }
+
+    /**
+     * The block for a single interior position.
+     */
+    protected BlockState stateAt(int x, int y, int z, MineRandom random) {
+        return source.stateAt(x, y, z, random);
+    }
+
+    /**
+     * The blocks for a whole tile in {@link MineTile#index(int, int, int)} order.
+     */
+    protected BlockState[] tileStates(MineTile tile, BlockState[] buffer, MineRandom random) {
+        return source.tileStates(tile, buffer, random);
+    }
+
+    /**
+     * Writes blocks within the budget once the block source is available.
+     *
+     * @return true once every interior block has been written
+     */
+    protected abstract boolean write(ServerLevel level, RegenBudget budget);
+}
@@ -0,0 +1,23 @@
+package net.akashaverse.akashicrecords.core.mine;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+
+/**
+ * Immutable view of every mine in a level at one point in time.  A
+ * {@link MineManager} publishes a new snapshot with a higher {@code version}
+ * whenever its mines change; background workers read the latest one through
+ * {@link MineManager#snapshot()} and can iterate it without locking.
+ */
+public record MineRegistrySnapshot(long version, Map<String, MineDefinition> mines) {
+    public static final MineRegistrySnapshot EMPTY = new MineRegistrySnapshot(0, Map.of());
+
+    public @Nullable MineDefinition get(String name) {
+        return mines.get(name);
+    }
+
+    public int size() {
+        return mines.size();
+    }
+}
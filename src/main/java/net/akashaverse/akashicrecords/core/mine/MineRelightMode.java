@@ -0,0 +1,20 @@
+package net.akashaverse.akashicrecords.core.mine;
+
+/**
+ * When a {@link MineFillBackend#CHUNK_SECTION} regeneration lets the light engine
+ * catch up with the blocks it wrote.
+ * <ul>
+ *   <li>{@link #PER_BLOCK} queues a light check for every block whose light
+ *       properties changed, as it is written.</li>
+ *   <li>{@link #PER_SECTION} collects those positions and relights each section
+ *       once at the end of the slice that wrote it.</li>
+ *   <li>{@link #LOW_PRIORITY} relights the sections only after the whole
+ *       regeneration is written, and only while the light engine is otherwise idle.</li>
+ * </ul>
+ * {@link MineFillBackend#SET_BLOCK} writes always light every block as it is placed.
+ */
+public enum MineRelightMode {
+    PER_BLOCK,
+    PER_SECTION,
+    LOW_PRIORITY
+}
@@ -0,0 +1,146 @@
+package net.akashaverse.akashicrecords.core.mine;
+
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongLinkedOpenHashSet;
+import net.akashaverse.akashicrecords.configs.MineConfig;
+import net.minecraft.core.SectionPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ThreadedLevelLightEngine;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.chunk.LevelChunk;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Relights the sections written by {@link MineRelightMode#PER_SECTION} and
+ * {@link MineRelightMode#LOW_PRIORITY} regenerations, at most
+ * {@link MineConfig#RELIGHT_SECTIONS_PER_TICK} sections per tick.  Instead of a light
+ * check per changed block, each section gets one section status update and each
+ * chunk one {@code lightChunk} pass, which propagates the light of every source in
+ * the chunk again on the light thread.  Light that the written blocks should have
+ * removed is therefore not taken away block by block: it stays hidden inside solid
+ * fill, but can bleed into blocks that are mined out next to it later.
+ * {@link MineRelightMode#PER_BLOCK} has no such leftovers, at the cost of one check
+ * per changed block.
+ * <p>
+ * Low priority sections wait while the light engine has other work, but no longer
+ * than {@link MineConfig#RELIGHT_MAX_DEFER_TICKS}, so a busy server still relights
+ * them eventually.
+ */
+public class MineRelighter {
+    private static final MineRelighter INSTANCE = new MineRelighter();
+
+    private final ArrayDeque<Section> queue = new ArrayDeque<>();
+    private final ArrayDeque<Section> lowPriority = new ArrayDeque<>();
+    /** ticks seen so far, to age the low priority sections */
+    private long ticks;
+
+    record Section(ServerLevel level, long pos, long queuedAt) {}
+
+    MineRelighter() {}
+
+    public static MineRelighter get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Queues every section of {@code batch} for relighting and empties the batch.
+     */
+    void submit(ServerLevel level, MineSyncBatch batch, boolean deferred) {
+        ArrayDeque<Section> target = deferred ? lowPriority : queue;
+        LongIterator it = batch.sections().keySet().iterator();
+        while (it.hasNext()) {
+            target.add(new Section(level, it.nextLong(), ticks));
+        }
+        batch.clear();
+    }
+
+    public void tick() {
+        ticks++;
+        int remaining = MineConfig.RELIGHT_SECTIONS_PER_TICK.get();
+        int maxDefer = MineConfig.RELIGHT_MAX_DEFER_TICKS.get();
+        Map<ServerLevel, LongLinkedOpenHashSet> chunks = new HashMap<>();
+        while (remaining > 0 && !queue.isEmpty()) {
+            relight(queue.poll(), chunks);
+            remaining--;
+        }
+        while (remaining > 0 && !lowPriority.isEmpty()) {
+            Section next = lowPriority.peek();
+            if (ticks - next.queuedAt() < maxDefer
+                    && next.level().getChunkSource().getLightEngine().hasLightWork()) {
+                break;
+            }
+            relight(lowPriority.poll(), chunks);
+            remaining--;
+        }
+        lightChunks(chunks);
+    }
+
+    /**
+     * Hands every queued section to the light engine at once, without the per tick
+     * limit or waiting for the engine to go idle, e.g. before the levels are saved on
+     * shutdown.
+     */
+    public void drain() {
+        Map<ServerLevel, LongLinkedOpenHashSet> chunks = new HashMap<>();
+        while (!queue.isEmpty()) {
+            relight(queue.poll(), chunks);
+        }
+        while (!lowPriority.isEmpty()) {
+            relight(lowPriority.poll(), chunks);
+        }
+        lightChunks(chunks);
+        chunks.keySet().forEach(level -> level.getChunkSource().getLightEngine().tryScheduleUpdate());
+    }
+
+    /**
+     * Brings the light engine's idea of whether the section is empty up to date and
+     * remembers its chunk for the {@code lightChunk} pass.
+     */
+    private static void relight(Section section, Map<ServerLevel, LongLinkedOpenHashSet> chunks) {
+        ServerLevel level = section.level();
+        SectionPos pos = SectionPos.of(section.pos());
+        LevelChunk chunk = level.getChunkSource().getChunkNow(pos.x(), pos.z());
+        if (chunk == null) {
+            // unloaded since, it is lit again when it loads
+            return;
+        }
+        int index = chunk.getSectionIndexFromSectionY(pos.y());
+        if (index < 0 || index >= chunk.getSectionsCount()) {
+            return;
+        }
+        level.getChunkSource().getLightEngine().updateSectionStatus(pos, chunk.getSection(index).hasOnlyAir());
+        chunks.computeIfAbsent(level, l -> new LongLinkedOpenHashSet()).add(ChunkPos.asLong(pos.x(), pos.z()));
+    }
+
+    private static void lightChunks(Map<ServerLevel, LongLinkedOpenHashSet> chunks) {
+        chunks.forEach((level, keys) -> {
+            ThreadedLevelLightEngine lightEngine = level.getChunkSource().getLightEngine();
+            keys.forEach((long key) -> {
+                LevelChunk chunk = level.getChunkSource().getChunkNow(ChunkPos.getX(key), ChunkPos.getZ(key));
+                if (chunk != null) {
+                    lightEngine.lightChunk(chunk, false);
+                }
+            });
+        });
+    }
+
+    /**
+     * Number of sections waiting to be relit.
+     */
+    public int size() {
+        return queue.size() + lowPriority.size();
+    }
+
+    /**
+     * Drops every queued section once the server has stopped; anything still queued
+     * was handed over by {@link #drain()} while it was stopping.
+     */
+    public void clear() {
+        queue.clear();
+        lowPriority.clear();
+        ticks = 0;
+    }
+}
@@ -0,0 +1,21 @@
+package net.akashaverse.akashicrecords.core.mine;
+
+/**
+ * What a reset rewrites.
+ * <ul>
+ *   <li>{@link #FULL} refills the whole interior.</li>
+ *   <li>{@link #DELTA} only rewrites the positions that players broke, placed or
+ *       blew up since the last reset, and skips the reset entirely if there are
+ *       none.  A mine still gets a full reset the first time and after a restart,
+ *       since its changes are not saved.</li>
+ * </ul>
+ * DELTA is approximate: blocks changed without a player break, place or explosion
+ * event, such as falling sand and gravel, flowing fluids, pistons, fire, commands
+ * like {@code /setblock} and other mods, are not seen and stay changed.  Every
+ * {@code regeneration.deltaFullResetEvery} resets a full one is forced to correct
+ * them.
+ */
+public enum MineResetMode {
+    FULL,
+    DELTA
+}
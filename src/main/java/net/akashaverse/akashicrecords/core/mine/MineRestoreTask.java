@@ -0,0 +1,103 @@
+package net.akashaverse.akashicrecords.core.mine;
+
+import net.akashaverse.akashicrecords.AkashicRecords;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.block.state.BlockState;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Puts back the terrain a deleted mine replaced, from its {@link MineSnapshots snapshot}.
+ * Like a {@link SectionRegenTask} the region, border included, is split into
+ * {@link MineTile}s that a {@link ChunkSectionWriter} writes one section at a time
+ * within the tick's budget, so a large restore is spread over as many ticks as it
+ * needs.  The players inside are evicted to the mine's entrance before the first
+ * tile is written, as for a reset.  Written sections are sent to clients after each slice and relit in the
+ * background by the {@link MineRelighter}.
+ * <p>
+ * Restores in progress are saved with their {@link MineManager}, together with the
+ * tile they continue from, and resume after a restart.
+ */
+class MineRestoreTask {
+    final String name;
+    private final MineManager manager;
+    private final Mine mine;
+    private final BlockPos min;
+    private final BlockPos max;
+    private final List<MineTile> tiles;
+    private final BlockState[] buffer = new BlockState[16 * 16 * 16];
+    private final MineRandom random = new MineRandom(0L);
+    private CompletableFuture<PackedFillPattern> pending;
+    private FillSource source;
+    private int cursor;
+
+    /**
+     * @param cursor the number of tiles already written, 0 for a new restore
+     */
+    MineRestoreTask(MineManager manager, String name, Mine mine, int cursor) {
+        this.name = name;
+        this.manager = manager;
+        this.mine = mine;
+        this.min = mine.min;
+        this.max = mine.max;
+        this.tiles = MineTile.split(min.getX(), min.getY(), min.getZ(), max.getX(), max.getY(), max.getZ(),
+                MineFillOrder.BOTTOM_UP);
+        this.cursor = Math.min(cursor, tiles.size());
+    }
+
+    Mine mine() {
+        return mine;
+    }
+
+    /**
+     * The number of tiles written so far.
+     */
+    int cursor() {
+        return cursor;
+    }
+
+    /**
+     * Writes as many tiles as the budget allows.  Nothing is written until the
+     * snapshot, read in the background from the first call on, is available.
+     *
+     * @return true once the restore has finished or failed
+     */
+    boolean advance(ServerLevel level, RegenBudget budget) {
+        if (source == null) {
+            if (pending == null) {
+                pending = MineSnapshots.read(level, min, max);
+            }
+            if (!pending.isDone()) {
+                return false;
+            }
+            PackedFillPattern pattern = pending.getNow(null);
+            if (pattern == null) {
+                AkashicRecords.LOGGER.warn("No usable terrain snapshot for mine '{}', nothing restored", name);
+                return true;
+            }
+            source = pattern.view(min.getX(), min.getY(), min.getZ(), false, false);
+            manager.evictPlayers(name, mine, null);
+        }
+        MineSyncBatch sync = new MineSyncBatch();
+        MineSyncBatch relight = new MineSyncBatch();
+        ChunkSectionWriter writer = new ChunkSectionWriter(level, sync, relight);
+        while (cursor < tiles.size() && !budget.exhausted()) {
+            MineTile tile = tiles.get(cursor++);
+            writer.write(tile, source.tileStates(tile, buffer, random));
+            budget.consume(tile.volume());
+        }
+        writer.finish();
+        MineClientSync.get().submit(level, sync);
+        MineRelighter.get().submit(level, relight, false);
+        // the saved cursor has moved on
+        manager.setDirty();
+        if (cursor < tiles.size()) {
+            return false;
+        }
+        MineSnapshots.delete(level, min, max);
+        AkashicRecords.LOGGER.info("Restored the terrain of mine '{}'", name);
+        return true;
+    }
+}
@@ -0,0 +1,161 @@
+package net.akashaverse.akashicrecords.core.mine;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Server‑wide queue of mine warning and reset deadlines across every level.
+ * <p>
+ * Instead of checking every mine on every tick, each mine queues its next warning
+ * and reset time when it is added or finishes a reset.  A tick only looks at the
+ * head of the queue, so idle ticks cost the same however many mines exist and
+ * levels without mines cost nothing.  Deadlines are compared with {@code <=}, so a
+ * warning is still delivered if its exact tick is skipped.
+ * <p>
+ * Entries are invalidated lazily: when a mine is removed, renamed or rescheduled its
+ * old entries stay in the queue and are dropped when they reach the head.  All
+ * dimensions share the overworld's game time, so one clock serves every level.
+ * Likewise a single {@link RegenAdmission} budget per tick is shared by every
+ * regeneration in every level.
+ */
+public class MineScheduler {
+    private static final MineScheduler INSTANCE = new MineScheduler();
+
+    private final PriorityQueue<Deadline> queue = new PriorityQueue<>(Comparator.comparingLong(Deadline::time));
+    /** managers with at least one time‑sliced regeneration in progress */
+    private final Set<MineManager> regenerating = new LinkedHashSet<>();
+    /** managers whose mines changed during this tick and need a new snapshot */
+    private final Set<MineManager> unpublished = new LinkedHashSet<>();
+    /** managers holding mines, in the order their borders are checked next */
+    private final ArrayDeque<MineManager> borderCheckers = new ArrayDeque<>();
+
+    /**
+     * A queued warning or reset.  {@code token} must still match the mine's schedule
+     * token when the deadline is reached, otherwise the entry is stale.
+     */
+    record Deadline(long time, boolean warning, MineManager manager, String name, Mine mine, int token) {}
+
+    MineScheduler() {}
+
+    public static MineScheduler get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Queues the next warning and reset of {@code mine}, replacing any entries queued
+     * for it before.
+     */
+    void schedule(MineManager manager, String name, Mine mine) {
+        int token = ++mine.scheduleToken;
+        if (mine.nextReset() <= 0) {
+            return;
+        }
+        if (mine.warningTicks > 0) {
+            queue.add(new Deadline(mine.nextReset() - mine.warningTicks, true, manager, name, mine, token));
+        }
+        queue.add(new Deadline(mine.nextReset(), false, manager, name, mine, token));
+    }
+
+    void markRegenerating(MineManager manager) {
+        regenerating.add(manager);
+    }
+
+    void markUnpublished(MineManager manager) {
+        unpublished.add(manager);
+    }
+
+    /**
+     * Includes the borders of {@code manager}'s mines in {@link #verifyBorders}.
+     */
+    void markBorders(MineManager manager) {
+        if (!borderCheckers.contains(manager)) {
+            borderCheckers.addLast(manager);
+        }
+    }
+
+    /**
+     * Spends {@code budget} border checks on the levels that hold mines.  The level
+     * that goes first moves on every tick, so a large border in one level cannot
+     * use up the budget of the others.  Managers without mines are dropped until
+     * they get one again.
+     */
+    public void verifyBorders(int budget) {
+        for (int visited = borderCheckers.size(); visited > 0 && budget > 0; visited--) {
+            MineManager manager = borderCheckers.pollFirst();
+            if (manager.getMines().isEmpty()) {
+                continue;
+            }
+            borderCheckers.addLast(manager);
+            budget -= manager.verifyBorders(budget);
+        }
+    }
+
+    /**
+     * Processes every deadline up to {@code gameTime}, advances running regenerations and
+     * publishes the snapshots of managers whose mines changed.
+     */
+    public void tick(long gameTime) {
+        RegenBudget budget = null;
+        while (!queue.isEmpty() && queue.peek().time() <= gameTime) {
+            Deadline deadline = queue.poll();
+            if (!isCurrent(deadline)) {
+                continue;
+            }
+            if (deadline.warning()) {
+                deadline.manager().onWarning(deadline.name(), deadline.mine(), gameTime);
+            } else {
+                if (budget == null) {
+                    budget = newBudget();
+                }
+                deadline.manager().onReset(deadline.name(), deadline.mine(), budget);
+            }
+        }
+        if (!regenerating.isEmpty()) {
+            if (budget == null) {
+                budget = newBudget();
+            }
+            Iterator<MineManager> it = regenerating.iterator();
+            while (it.hasNext()) {
+                if (!it.next().continueRegenerations(budget)) {
+                    it.remove();
+                }
+            }
+        }
+        if (!unpublished.isEmpty()) {
+            unpublished.forEach(MineManager::publish);
+            unpublished.clear();
+        }
+    }
+
+    private static boolean isCurrent(Deadline deadline) {
+        Mine mine = deadline.mine();
+        return mine.scheduleToken == deadline.token()
+                && !mine.isRegenerating()
+                && deadline.manager().getMine(deadline.name()) == mine;
+    }
+
+    private static RegenBudget newBudget() {
+        return RegenAdmission.get().newBudget();
+    }
+
+    /**
+     * Number of queued entries, including stale ones that have not been dropped yet.
+     */
+    public int size() {
+        return queue.size();
+    }
+
+    /**
+     * Forgets every queued deadline, e.g. when the server stops.
+     */
+    public void clear() {
+        queue.clear();
+        regenerating.clear();
+        unpublished.clear();
+        borderCheckers.clear();
+    }
+}
@@ -0,0 +1,244 @@
+package net.akashaverse.akashicrecords.core.mine;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntLinkedOpenHashMap;
+import net.akashaverse.akashicrecords.AkashicRecords;
+import net.minecraft.Util;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.HolderGetter;
+import net.minecraft.core.SectionPos;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.NbtAccounter;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.NbtUtils;
+import net.minecraft.nbt.Tag;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.PalettedContainer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Snapshots of the terrain a mine replaced, so deleting the mine can put it back.
+ * <p>
+ * {@link #capture} copies the block containers of every section the region touches
+ * on the server thread, which is cheap, and leaves the rest to the IO pool: the
+ * copies are reduced to one palette and a {@link PackedFillPattern}, written as
+ * compressed NBT and moved into place through NIO so a crash never leaves a torn
+ * file.  A region that already has a snapshot keeps it, so recreating a mine over
+ * the same bounds does not overwrite the original terrain with the old fill.
+ * <p>
+ * Only block states are kept; block entity contents (chest items, sign text, ...)
+ * are not part of a snapshot.
+ */
+public final class MineSnapshots {
+    private static final int VERSION = 1;
+
+    /** snapshots still being written, so a restore right after a create waits for them */
+    private static final Map<Path, CompletableFuture<Void>> WRITING = new ConcurrentHashMap<>();
+
+    private MineSnapshots() {}
+
+    /**
+     * The snapshot file for the region between {@code min} and {@code max} of {@code level}'s
+     * dimension.
+     */
+    public static Path file(ServerLevel level, BlockPos min, BlockPos max) {
+        return MineManager.levelDirectory(level).resolve("snapshots")
+                .resolve(String.format("%016x_%016x.nbt", min.asLong(), max.asLong()));
+    }
+
+    public static boolean exists(ServerLevel level, BlockPos min, BlockPos max) {
+        Path file = file(level, min, max);
+        return WRITING.containsKey(file) || Files.isRegularFile(file);
+    }
+
+    /**
+     * Captures the region between {@code min} and {@code max}, inclusive, unless it
+     * already has a snapshot.  Must be called on the server thread before anything in
+     * the region is changed; the file is written in the background.
+     */
+    public static void capture(ServerLevel level, BlockPos min, BlockPos max) {
+        Path file = file(level, min, max);
+        if (WRITING.containsKey(file) || Files.isRegularFile(file)) {
+            return;
+        }
+        Long2ObjectMap<PalettedContainer<BlockState>> sections = new Long2ObjectOpenHashMap<>();
+        for (int cx = SectionPos.blockToSectionCoord(min.getX()); cx <= SectionPos.blockToSectionCoord(max.getX()); cx++) {
+            for (int cz = SectionPos.blockToSectionCoord(min.getZ()); cz <= SectionPos.blockToSectionCoord(max.getZ()); cz++) {
+                LevelChunk chunk = level.getChunk(cx, cz);
+                for (int cy = SectionPos.blockToSectionCoord(min.getY()); cy <= SectionPos.blockToSectionCoord(max.getY()); cy++) {
+                    int index = chunk.getSectionIndexFromSectionY(cy);
+                    if (index >= 0 && index < chunk.getSectionsCount()) {
+                        sections.put(SectionPos.asLong(cx, cy, cz), chunk.getSection(index).getStates().copy());
+                    }
+                }
+            }
+        }
+        CompletableFuture<Void> write = new CompletableFuture<>();
+        WRITING.put(file, write);
+        Util.ioPool().execute(() -> {
+            try {
+                long start = System.nanoTime();
+                byte[] bytes = encode(sections, min, max);
+                write(file, bytes);
+                AkashicRecords.LOGGER.info("Saved terrain snapshot {} ({} KiB) in {} ms",
+                        file.getFileName(), bytes.length / 1024, (System.nanoTime() - start) / 1_000_000);
+                write.complete(null);
+            } catch (IOException | RuntimeException e) {
+                AkashicRecords.LOGGER.error("Could not save terrain snapshot {}", file, e);
+                write.completeExceptionally(e);
+            } finally {
+                WRITING.remove(file, write);
+            }
+        });
+    }
+
+    /**
+     * Reads the snapshot of the region between {@code min} and {@code max} in the
+     * background, after any write of it still in progress.  The pattern's minimum
+     * corner is {@code min}.  Completes with null if there is no usable snapshot.
+     */
+    public static CompletableFuture<PackedFillPattern> read(ServerLevel level, BlockPos min, BlockPos max) {
+        Path file = file(level, min, max);
+        HolderGetter<Block> blocks = level.registryAccess().lookupOrThrow(Registries.BLOCK);
+        CompletableFuture<Void> pending = WRITING.getOrDefault(file, CompletableFuture.completedFuture(null));
+        return pending.exceptionally(error -> null).thenApplyAsync(ignored -> {
+            try {
+                return decode(blocks, file, min, max);
+            } catch (IOException | RuntimeException e) {
+                AkashicRecords.LOGGER.error("Could not read terrain snapshot {}", file, e);
+                return null;
+            }
+        }, Util.ioPool());
+    }
+
+    /**
+     * Deletes the snapshot of the region between {@code min} and {@code max} in the
+     * background, after any write of it still in progress.
+     */
+    public static void delete(ServerLevel level, BlockPos min, BlockPos max) {
+        Path file = file(level, min, max);
+        CompletableFuture<Void> pending = WRITING.getOrDefault(file, CompletableFuture.completedFuture(null));
+        pending.exceptionally(error -> null).thenRunAsync(() -> {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                AkashicRecords.LOGGER.warn("Could not delete terrain snapshot {}", file, e);
+            }
+        }, Util.ioPool());
+    }
+
+    static byte[] encode(Long2ObjectMap<PalettedContainer<BlockState>> sections, BlockPos min, BlockPos max)
+            throws IOException {
+        int sizeX = max.getX() - min.getX() + 1;
+        int sizeY = max.getY() - min.getY() + 1;
+        int sizeZ = max.getZ() - min.getZ() + 1;
+        BlockState air = Blocks.AIR.defaultBlockState();
+
+        // first pass collects the palette, so the pattern knows its entry width
+        Reference2IntLinkedOpenHashMap<BlockState> ids = new Reference2IntLinkedOpenHashMap<>();
+        ids.put(air, 0);
+        for (int y = min.getY(); y <= max.getY(); y++) {
+            for (int z = min.getZ(); z <= max.getZ(); z++) {
+                for (int x = min.getX(); x <= max.getX(); x++) {
+                    BlockState state = stateAt(sections, x, y, z, air);
+                    if (!ids.containsKey(state)) {
+                        ids.put(state, ids.size());
+                    }
+                }
+            }
+        }
+        BlockState[] palette = ids.keySet().toArray(new BlockState[0]);
+        PackedFillPattern pattern = PackedFillPattern.create(palette, sizeX, sizeY, sizeZ, null, 0L);
+        for (int y = 0; y < sizeY; y++) {
+            for (int z = 0; z < sizeZ; z++) {
+                for (int x = 0; x < sizeX; x++) {
+                    BlockState state = stateAt(sections, min.getX() + x, min.getY() + y, min.getZ() + z, air);
+                    pattern.set(x, y, z, ids.getInt(state));
+                }
+            }
+        }
+
+        ListTag paletteTag = new ListTag();
+        for (BlockState state : palette) {
+            paletteTag.add(NbtUtils.writeBlockState(state));
+        }
+        CompoundTag tag = new CompoundTag();
+        tag.putInt("version", VERSION);
+        tag.putIntArray("size", new int[]{sizeX, sizeY, sizeZ});
+        tag.put("palette", paletteTag);
+        tag.putLongArray("data", pattern.toLongArray());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        NbtIo.writeCompressed(tag, out);
+        return out.toByteArray();
+    }
+
+    private static BlockState stateAt(Long2ObjectMap<PalettedContainer<BlockState>> sections,
+                                      int x, int y, int z, BlockState outside) {
+        PalettedContainer<BlockState> states = sections.get(SectionPos.asLong(
+                SectionPos.blockToSectionCoord(x), SectionPos.blockToSectionCoord(y), SectionPos.blockToSectionCoord(z)));
+        return states == null ? outside : states.get(x & 15, y & 15, z & 15);
+    }
+
+    private static void write(Path file, byte[] bytes) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static PackedFillPattern decode(HolderGetter<Block> blocks, Path file, BlockPos min, BlockPos max)
+            throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        byte[] bytes;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(channel.size()));
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // keep reading
+            }
+            bytes = buffer.array();
+        }
+        CompoundTag tag = NbtIo.readCompressed(new ByteArrayInputStream(bytes), NbtAccounter.unlimitedHeap());
+        int[] size = tag.getIntArray("size");
+        if (tag.getInt("version") != VERSION || size.length != 3
+                || size[0] != max.getX() - min.getX() + 1
+                || size[1] != max.getY() - min.getY() + 1
+                || size[2] != max.getZ() - min.getZ() + 1) {
+            AkashicRecords.LOGGER.warn("Terrain snapshot {} does not match its region, ignoring it", file);
+            return null;
+        }
+        ListTag paletteTag = tag.getList("palette", Tag.TAG_COMPOUND);
+        BlockState[] palette = new BlockState[paletteTag.size()];
+        for (int i = 0; i < palette.length; i++) {
+            palette[i] = NbtUtils.readBlockState(blocks, paletteTag.getCompound(i));
+        }
+        return PackedFillPattern.wrap(palette, size[0], size[1], size[2], tag.getLongArray("data"));
+    }
+}
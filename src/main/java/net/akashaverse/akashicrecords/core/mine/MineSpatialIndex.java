@@ -0,0 +1,119 @@
+package net.akashaverse.akashicrecords.core.mine;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.EntityTypeTest;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.phys.AABB;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+/**
+ * Maps chunk positions to the mines overlapping them so that "which mine is this
+ * block in" is a hash lookup plus a check of the (usually single) mine in that
+ * chunk, rather than a scan over every mine in the level.
+ * <p>
+ * Players inside a mine are found through the level's entity sections covering the
+ * mine's bounding box, so the cost depends on the mine's footprint and the players
+ * near it, not on everyone online.
+ */
+public class MineSpatialIndex {
+    private final Long2ObjectOpenHashMap<List<Mine>> byChunk = new Long2ObjectOpenHashMap<>();
+    /** the name each mine was added under */
+    private final Reference2ObjectOpenHashMap<Mine, String> names = new Reference2ObjectOpenHashMap<>();
+
+    public void add(String name, Mine mine) {
+        names.put(mine, name);
+        forEachChunk(mine, key -> byChunk.computeIfAbsent(key, k -> new ArrayList<>(1)).add(mine));
+    }
+
+    public void remove(Mine mine) {
+        names.remove(mine);
+        forEachChunk(mine, key -> {
+            List<Mine> list = byChunk.get(key);
+            if (list != null) {
+                list.remove(mine);
+                if (list.isEmpty()) {
+                    byChunk.remove(key);
+                }
+            }
+        });
+    }
+
+    public void clear() {
+        byChunk.clear();
+        names.clear();
+    }
+
+    /**
+     * The name {@code mine} was added under, or null if it is not in the index.
+     */
+    public @Nullable String nameOf(Mine mine) {
+        return names.get(mine);
+    }
+
+    /**
+     * The mine containing {@code pos}, or null.  If mines overlap, the first one added wins.
+     */
+    public @Nullable Mine mineAt(BlockPos pos) {
+        List<Mine> list = byChunk.get(ChunkPos.asLong(SectionPos.blockToSectionCoord(pos.getX()), SectionPos.blockToSectionCoord(pos.getZ())));
+        if (list == null) {
+            return null;
+        }
+        for (int i = 0; i < list.size(); i++) {
+            Mine mine = list.get(i);
+            if (mine.contains(pos)) {
+                return mine;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Whether any mine overlaps the given chunk.
+     */
+    public boolean hasMinesIn(int chunkX, int chunkZ) {
+        return byChunk.containsKey(ChunkPos.asLong(chunkX, chunkZ));
+    }
+
+    /**
+     * The mines overlapping the given chunk, in the order they were added.
+     */
+    public List<Mine> minesIn(int chunkX, int chunkZ) {
+        List<Mine> list = byChunk.get(ChunkPos.asLong(chunkX, chunkZ));
+        return list == null ? List.of() : list;
+    }
+
+    /**
+     * Players currently standing inside {@code mine}, found through the entity sections
+     * covering it.
+     */
+    public static List<ServerPlayer> playersInside(ServerLevel level, Mine mine) {
+        AABB bounds = new AABB(mine.min.getX(), mine.min.getY(), mine.min.getZ(),
+                mine.max.getX() + 1, mine.max.getY() + 1, mine.max.getZ() + 1);
+        return level.getEntities(EntityTypeTest.forClass(ServerPlayer.class), bounds,
+                p -> mine.contains(p.blockPosition()));
+    }
+
+    /**
+     * Calls {@code action} with the key of every chunk the mine overlaps.
+     */
+    static void forEachChunk(Mine mine, LongConsumer action) {
+        int minChunkX = SectionPos.blockToSectionCoord(mine.min.getX());
+        int maxChunkX = SectionPos.blockToSectionCoord(mine.max.getX());
+        int minChunkZ = SectionPos.blockToSectionCoord(mine.min.getZ());
+        int maxChunkZ = SectionPos.blockToSectionCoord(mine.max.getZ());
+        for (int cx = minChunkX; cx <= maxChunkX; cx++) {
+            for (int cz = minChunkZ; cz <= maxChunkZ; cz++) {
+                action.accept(ChunkPos.asLong(cx, cz));
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package net.akashaverse.akashicrecords.core.mine;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.shorts.ShortOpenHashSet;
+import it.unimi.dsi.fastutil.shorts.ShortSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.ChunkPos;
+
+/**
+ * Blocks changed by a regeneration without notifying clients, grouped by chunk
+ * section.  After every slice of a regeneration the batch is handed to
+ * {@link MineClientSync}, which turns it into one packet per section or chunk.
+ * The same structure collects the positions a {@link MineRelighter} has to relight.
+ */
+public class MineSyncBatch {
+    private final Long2ObjectOpenHashMap<ShortSet> sections = new Long2ObjectOpenHashMap<>();
+
+    public void add(BlockPos pos) {
+        section(SectionPos.asLong(pos)).add(SectionPos.sectionRelativePos(pos));
+    }
+
+    /**
+     * The changed positions of one section, packed with {@link SectionPos#sectionRelativePos}.
+     */
+    public ShortSet section(long sectionPos) {
+        ShortSet positions = sections.get(sectionPos);
+        if (positions == null) {
+            positions = new ShortOpenHashSet();
+            sections.put(sectionPos, positions);
+        }
+        return positions;
+    }
+
+    public int sectionCount() {
+        return sections.size();
+    }
+
+    public int chunkCount() {
+        LongSet chunks = new LongOpenHashSet();
+        for (long section : sections.keySet()) {
+            chunks.add(ChunkPos.asLong(SectionPos.x(section), SectionPos.z(section)));
+        }
+        return chunks.size();
+    }
+
+    public boolean isEmpty() {
+        return sections.isEmpty();
+    }
+
+    public void clear() {
+        sections.clear();
+    }
+
+    Long2ObjectMap<ShortSet> sections() {
+        return sections;
+    }
+}
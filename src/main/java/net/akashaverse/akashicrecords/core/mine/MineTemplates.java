@@ -0,0 +1,205 @@
+package net.akashaverse.akashicrecords.core.mine;
+
+import net.akashaverse.akashicrecords.AkashicRecords;
+import net.minecraft.core.HolderGetter;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.NbtAccounter;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.NbtUtils;
+import net.minecraft.nbt.Tag;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.packs.resources.Resource;
+import net.minecraft.util.datafix.DataFixTypes;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.storage.LevelResource;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * Structure templates used as mine fills.  Each template is converted once into a
+ * {@link PackedFillPattern} file under the world's data folder, with its palette
+ * in a small NBT file next to it.  Later loads only check the template's checksum
+ * and map the pattern file, so the template is not parsed again and its blocks are
+ * not kept on the heap.
+ * <p>
+ * Templates are looked up like vanilla's structure manager does: first in the
+ * world's {@code generated} folder (where structure blocks save), then in data packs.
+ * Positions the template leaves empty (structure voids) are filled with air.
+ */
+public class MineTemplates {
+    private static final MineTemplates INSTANCE = new MineTemplates();
+
+    private static final int PALETTE_VERSION = 1;
+
+    /** patterns mapped this session, by template id */
+    private final Map<ResourceLocation, PackedFillPattern> loaded = new HashMap<>();
+    /** templates that failed to load this session, so they are only reported once */
+    private final Set<ResourceLocation> missing = new HashSet<>();
+
+    MineTemplates() {}
+
+    public static MineTemplates get() {
+        return INSTANCE;
+    }
+
+    /**
+     * The pattern for the template {@code id}, converting it first if it has no
+     * up‑to‑date cache file.  Returns null if the template does not exist or cannot
+     * be read.
+     */
+    public @Nullable PackedFillPattern pattern(ServerLevel level, ResourceLocation id) {
+        PackedFillPattern pattern = loaded.get(id);
+        if (pattern != null || missing.contains(id)) {
+            return pattern;
+        }
+        try {
+            pattern = load(level, id);
+        } catch (IOException | RuntimeException e) {
+            AkashicRecords.LOGGER.error("Failed to load mine template {}", id, e);
+        }
+        if (pattern == null) {
+            missing.add(id);
+        } else {
+            loaded.put(id, pattern);
+        }
+        return pattern;
+    }
+
+    public int size() {
+        return loaded.size();
+    }
+
+    /**
+     * Forgets every mapped pattern.  The cache files are kept for the next start.
+     */
+    public void clear() {
+        loaded.clear();
+        missing.clear();
+    }
+
+    private static @Nullable PackedFillPattern load(ServerLevel level, ResourceLocation id) throws IOException {
+        MinecraftServer server = level.getServer();
+        byte[] raw = readTemplate(server, id);
+        if (raw == null) {
+            AkashicRecords.LOGGER.warn("Mine template {} not found, using the block lists instead", id);
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(raw);
+        long checksum = crc.getValue();
+
+        Path dir = MineManager.dataDirectory(level).resolve("templates").resolve(id.getNamespace());
+        Path patternFile = dir.resolve(id.getPath() + ".bin");
+        Path paletteFile = dir.resolve(id.getPath() + ".palette.nbt");
+        HolderGetter<Block> blocks = level.registryAccess().lookupOrThrow(Registries.BLOCK);
+
+        if (Files.exists(paletteFile)) {
+            CompoundTag header = NbtIo.readCompressed(paletteFile, NbtAccounter.unlimitedHeap());
+            if (header.getInt("version") == PALETTE_VERSION && header.getLong("checksum") == checksum) {
+                BlockState[] palette = readPalette(blocks, header.getList("palette", Tag.TAG_COMPOUND));
+                int[] size = header.getIntArray("size");
+                PackedFillPattern pattern = PackedFillPattern.open(patternFile, palette, size[0], size[1], size[2], checksum);
+                if (pattern != null) {
+                    return pattern;
+                }
+            }
+        }
+        return convert(server, blocks, id, raw, checksum, patternFile, paletteFile);
+    }
+
+    /**
+     * Parses the template and writes its pattern and palette files.
+     */
+    private static @Nullable PackedFillPattern convert(MinecraftServer server, HolderGetter<Block> blocks,
+                                                       ResourceLocation id, byte[] raw, long checksum,
+                                                       Path patternFile, Path paletteFile) throws IOException {
+        long start = System.nanoTime();
+        CompoundTag tag = NbtIo.readCompressed(new ByteArrayInputStream(raw), NbtAccounter.unlimitedHeap());
+        int dataVersion = NbtUtils.getDataVersion(tag, 500);
+        tag = DataFixTypes.STRUCTURE.updateToCurrentVersion(server.getFixerUpper(), tag, dataVersion);
+
+        ListTag sizeTag = tag.getList("size", Tag.TAG_INT);
+        int sizeX = sizeTag.getInt(0);
+        int sizeY = sizeTag.getInt(1);
+        int sizeZ = sizeTag.getInt(2);
+        if (sizeX <= 0 || sizeY <= 0 || sizeZ <= 0) {
+            AkashicRecords.LOGGER.warn("Mine template {} is empty, using the block lists instead", id);
+            return null;
+        }
+        ListTag templatePalette = tag.contains("palettes", Tag.TAG_LIST)
+                ? tag.getList("palettes", Tag.TAG_LIST).getList(0)
+                : tag.getList("palette", Tag.TAG_COMPOUND);
+
+        // index 0 is air so positions the template leaves out need no writes
+        ListTag paletteTag = new ListTag();
+        paletteTag.add(NbtUtils.writeBlockState(Blocks.AIR.defaultBlockState()));
+        paletteTag.addAll(templatePalette);
+        BlockState[] palette = readPalette(blocks, paletteTag);
+
+        PackedFillPattern pattern = PackedFillPattern.create(palette, sizeX, sizeY, sizeZ, patternFile, checksum);
+        ListTag entries = tag.getList("blocks", Tag.TAG_COMPOUND);
+        for (int i = 0; i < entries.size(); i++) {
+            CompoundTag entry = entries.getCompound(i);
+            ListTag pos = entry.getList("pos", Tag.TAG_INT);
+            int x = pos.getInt(0);
+            int y = pos.getInt(1);
+            int z = pos.getInt(2);
+            if (x >= 0 && x < sizeX && y >= 0 && y < sizeY && z >= 0 && z < sizeZ) {
+                pattern.set(x, y, z, entry.getInt("state") + 1);
+            }
+        }
+        pattern.commit();
+
+        CompoundTag header = new CompoundTag();
+        header.putInt("version", PALETTE_VERSION);
+        header.putLong("checksum", checksum);
+        header.putIntArray("size", new int[]{sizeX, sizeY, sizeZ});
+        header.put("palette", paletteTag);
+        Files.createDirectories(paletteFile.getParent());
+        NbtIo.writeCompressed(header, paletteFile);
+        AkashicRecords.LOGGER.info("Converted mine template {} ({}x{}x{}, {} states) in {} ms",
+                id, sizeX, sizeY, sizeZ, palette.length, (System.nanoTime() - start) / 1_000_000);
+        return pattern;
+    }
+
+    private static BlockState[] readPalette(HolderGetter<Block> blocks, ListTag list) {
+        BlockState[] palette = new BlockState[list.size()];
+        for (int i = 0; i < palette.length; i++) {
+            palette[i] = NbtUtils.readBlockState(blocks, list.getCompound(i));
+        }
+        return palette;
+    }
+
+    private static byte[] readTemplate(MinecraftServer server, ResourceLocation id) throws IOException {
+        Path generated = server.getWorldPath(LevelResource.GENERATED_DIR)
+                .resolve(id.getNamespace()).resolve("structures").resolve(id.getPath() + ".nbt");
+        if (Files.isRegularFile(generated)) {
+            return Files.readAllBytes(generated);
+        }
+        Optional<Resource> resource = server.getResourceManager()
+                .getResource(id.withPath(path -> "structure/" + path + ".nbt"));
+        if (resource.isEmpty()) {
+            return null;
+        }
+        try (InputStream in = resource.get().open()) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package net.akashaverse.akashicrecords.core.mine;
+
+import net.minecraft.core.SectionPos;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The part of a mine's interior that falls inside a single chunk section.
+ * Bounds are inclusive world coordinates.  Blocks inside a tile are addressed
+ * in the same y, z, x order that {@code LevelChunkSection} stores them in, so
+ * a tile can be written by walking its section palette sequentially.
+ */
+public record MineTile(int sectionX, int sectionY, int sectionZ,
+                       int minX, int minY, int minZ,
+                       int maxX, int maxY, int maxZ) {
+
+    public int sizeX() {
+        return maxX - minX + 1;
+    }
+
+    public int sizeY() {
+        return maxY - minY + 1;
+    }
+
+    public int sizeZ() {
+        return maxZ - minZ + 1;
+    }
+
+    public int volume() {
+        return sizeX() * sizeY() * sizeZ();
+    }
+
+    /**
+     * Index of a world position inside this tile, in y, z, x order.
+     */
+    public int index(int x, int y, int z) {
+        return ((y - minY) * sizeZ() + (z - minZ)) * sizeX() + (x - minX);
+    }
+
+    /**
+     * Splits the inclusive box {@code [minX..maxX] x [minY..maxY] x [minZ..maxZ]} into
+     * section‑aligned tiles.  Tiles are ordered by section Y according to {@code order}
+     * and then chunk by chunk.
+     */
+    public static List<MineTile> split(int minX, int minY, int minZ, int maxX, int maxY, int maxZ,
+                                       MineFillOrder order) {
+        List<MineTile> tiles = new ArrayList<>();
+        if (minX > maxX || minY > maxY || minZ > maxZ) {
+            return tiles;
+        }
+        int minSecX = SectionPos.blockToSectionCoord(minX);
+        int maxSecX = SectionPos.blockToSectionCoord(maxX);
+        int minSecY = SectionPos.blockToSectionCoord(minY);
+        int maxSecY = SectionPos.blockToSectionCoord(maxY);
+        int minSecZ = SectionPos.blockToSectionCoord(minZ);
+        int maxSecZ = SectionPos.blockToSectionCoord(maxZ);
+        for (int i = 0; i <= maxSecY - minSecY; i++) {
+            int sy = order == MineFillOrder.TOP_DOWN ? maxSecY - i : minSecY + i;
+            for (int sx = minSecX; sx <= maxSecX; sx++) {
+                for (int sz = minSecZ; sz <= maxSecZ; sz++) {
+                    tiles.add(new MineTile(sx, sy, sz,
+                            Math.max(minX, SectionPos.sectionToBlockCoord(sx)),
+                            Math.max(minY, SectionPos.sectionToBlockCoord(sy)),
+                            Math.max(minZ, SectionPos.sectionToBlockCoord(sz)),
+                            Math.min(maxX, SectionPos.sectionToBlockCoord(sx, 15)),
+                            Math.min(maxY, SectionPos.sectionToBlockCoord(sy, 15)),
+                            Math.min(maxZ, SectionPos.sectionToBlockCoord(sz, 15))));
+                }
+            }
+        }
+        return tiles;
+    }
+}
@@ -1,5 +1,7 @@
 package net.akashaverse.akashicrecords.core.mine;
 
+import org.jetbrains.annotations.Nullable;
+
 import java.util.List;
 
 /**
@@ -10,12 +12,26 @@ import java.util.List;
  * distributions of adjacent layers across the vertical axis to create a
  * transition effect.  If {@code layers} is empty or null then the
  * {@code distribution} is used uniformly throughout the mine.
+ * <p>
+ * A type may instead name a structure template ({@code template = "namespace:path"});
+ * mines of that type are filled by repeating the template across their interior and
+ * the distributions are only used if the template cannot be found.
+ * <p>
+ * A positive {@code veinSize} groups the ores of each layer into noise‑shaped
+ * veins roughly that many blocks across instead of scattering them one by one.
  */
 public record MineType(String name,
                        int refillIntervalTicks,
                        int warningTicks,
                        List<WeightedBlock> distribution,
-                       List<MineLayer> layers) {
+                       List<MineLayer> layers,
+                       @Nullable String template,
+                       int veinSize) {
+
+    public MineType(String name, int refillIntervalTicks, int warningTicks,
+                    List<WeightedBlock> distribution, List<MineLayer> layers) {
+        this(name, refillIntervalTicks, warningTicks, distribution, layers, null, 0);
+    }
 
     /**
      * Returns true if this type defines at least one layer.  When layers are
@@ -25,4 +41,11 @@ public record MineType(String name,
     public boolean hasLayers() {
         return layers != null && !layers.isEmpty();
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns true if mines of this type are filled from a structure template.
+     */
+    public boolean hasTemplate() {
+        return template != null && !template.isEmpty();
+    }
+}
@@ -0,0 +1,10 @@
+package net.akashaverse.akashicrecords.core.mine;
+
+/**
+ * A layer profile split for vein generation: per interior Y level, a sampler of the
+ * host (non‑ore) blocks, a sampler of the ores and the {@link VeinNoise} value above
+ * which a position becomes ore.  Shared like the plain profiles, see
+ * {@link MineLayerProfiles#veinProfile}.
+ */
+record MineVeinProfile(BlockSampler[] hosts, BlockSampler[] ores, float[] thresholds) {
+}
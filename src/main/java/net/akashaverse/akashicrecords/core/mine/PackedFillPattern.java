@@ -0,0 +1,327 @@
+package net.akashaverse.akashicrecords.core.mine;
+
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import net.minecraft.util.Mth;
+import net.minecraft.world.level.block.state.BlockState;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A complete mine fill stored as palette indices packed into {@code long}s, the
+ * same layout vanilla uses for {@code SimpleBitStorage}: each long holds
+ * {@code 64 / bits} entries and entries never straddle two longs.  Entries are in
+ * y, z, x order relative to the interior's minimum corner.
+ * <p>
+ * The packed data either lives on the heap or in a memory‑mapped file, in which
+ * case only the palette is kept in memory.
+ */
+public class PackedFillPattern {
+    private static final int MAGIC = 0x414B4650; // "AKFP"
+    private static final int VERSION = 2;
+    /** magic, version, bits, volume, palette size, unused, then the 64-bit key at {@link #KEY_OFFSET} */
+    private static final int HEADER_BYTES = 32;
+    private static final int KEY_OFFSET = 24;
+
+    private final BlockState[] palette;
+    private final int bits;
+    private final int valuesPerLong;
+    private final long mask;
+    private final int sizeX;
+    private final int sizeY;
+    private final int sizeZ;
+    private final LongBuffer data;
+    /** for a pattern being written by {@link #create}: the mapping, its temporary file and the final one */
+    private MappedByteBuffer pending;
+    private Path pendingFile;
+    private Path file;
+
+    private PackedFillPattern(BlockState[] palette, int sizeX, int sizeY, int sizeZ, LongBuffer data) {
+        this.palette = palette;
+        this.bits = bitsFor(palette.length);
+        this.valuesPerLong = 64 / bits;
+        this.mask = (1L << bits) - 1L;
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.sizeZ = sizeZ;
+        this.data = data;
+    }
+
+    private static int bitsFor(int paletteSize) {
+        return Math.max(1, Mth.ceillog2(Math.max(2, paletteSize)));
+    }
+
+    private static int longsFor(int volume, int bits) {
+        int valuesPerLong = 64 / bits;
+        return (volume + valuesPerLong - 1) / valuesPerLong;
+    }
+
+    /**
+     * Packs a finished plan covering the box starting at {@code (originX, originY, originZ)}.
+     *
+     * @param file where to memory‑map the data, or null to keep it on the heap
+     * @param key  stored in the file's header and checked by {@link #open}
+     */
+    static PackedFillPattern pack(MineFillPlan plan, BlockState[] palette,
+                                  int originX, int originY, int originZ,
+                                  int sizeX, int sizeY, int sizeZ, Path file, long key) throws IOException {
+        PackedFillPattern pattern = create(palette, sizeX, sizeY, sizeZ, file, key);
+
+        Reference2IntOpenHashMap<BlockState> ids = new Reference2IntOpenHashMap<>(palette.length);
+        for (int i = 0; i < palette.length; i++) {
+            ids.put(palette[i], i);
+        }
+        int index = 0;
+        for (int y = 0; y < sizeY; y++) {
+            for (int z = 0; z < sizeZ; z++) {
+                for (int x = 0; x < sizeX; x++) {
+                    pattern.set(index++, ids.getInt(plan.stateAt(originX + x, originY + y, originZ + z)));
+                }
+            }
+        }
+        pattern.commit();
+        return pattern;
+    }
+
+    /**
+     * Creates a pattern of the given size with every entry set to palette index 0.
+     * A file‑backed pattern is written to a temporary file next to {@code file} and
+     * only appears under its real name once {@link #commit()} is called, so a crash
+     * while it is being filled never leaves a file that {@link #open} accepts.
+     *
+     * @param file where to memory‑map the data, or null to keep it on the heap
+     * @param key  stored in the file's header and checked by {@link #open}
+     */
+    static PackedFillPattern create(BlockState[] palette, int sizeX, int sizeY, int sizeZ, Path file, long key)
+            throws IOException {
+        int volume = sizeX * sizeY * sizeZ;
+        int bits = bitsFor(palette.length);
+        if (file == null) {
+            return new PackedFillPattern(palette, sizeX, sizeY, sizeZ, LongBuffer.wrap(new long[longsFor(volume, bits)]));
+        }
+        Files.createDirectories(file.getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        long bytes = HEADER_BYTES + (long) longsFor(volume, bits) * Long.BYTES;
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+        }
+        // the magic is written last, by commit()
+        buffer.putInt(4, VERSION).putInt(8, bits).putInt(12, volume).putInt(16, palette.length).putLong(KEY_OFFSET, key);
+        PackedFillPattern pattern = new PackedFillPattern(palette, sizeX, sizeY, sizeZ,
+                buffer.slice(HEADER_BYTES, (int) (bytes - HEADER_BYTES)).asLongBuffer());
+        pattern.pending = buffer;
+        pattern.pendingFile = tmp;
+        pattern.file = file;
+        return pattern;
+    }
+
+    /**
+     * Finishes a file‑backed pattern made by {@link #create}: flushes the data, marks
+     * the header complete and moves the file into place.  Does nothing for heap
+     * patterns or patterns already committed.
+     */
+    void commit() throws IOException {
+        if (pending == null) {
+            return;
+        }
+        pending.force();
+        pending.putInt(0, MAGIC);
+        pending.force();
+        try {
+            Files.move(pendingFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(pendingFile, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        pending = null;
+        pendingFile = null;
+        file = null;
+    }
+
+    /**
+     * A heap pattern over {@code data} as returned by {@link #toLongArray()}, or null if
+     * its length does not match the shape.
+     */
+    static PackedFillPattern wrap(BlockState[] palette, int sizeX, int sizeY, int sizeZ, long[] data) {
+        if (data.length != longsFor(sizeX * sizeY * sizeZ, bitsFor(palette.length))) {
+            return null;
+        }
+        return new PackedFillPattern(palette, sizeX, sizeY, sizeZ, LongBuffer.wrap(data));
+    }
+
+    /**
+     * Maps an existing pattern file written by {@link #create} and {@link #commit()}, or
+     * returns null if the file is missing, incomplete, or was written for another
+     * shape, palette or {@code key}.
+     */
+    static PackedFillPattern open(Path file, BlockState[] palette, int sizeX, int sizeY, int sizeZ, long key)
+            throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        int volume = sizeX * sizeY * sizeZ;
+        int bits = bitsFor(palette.length);
+        long bytes = HEADER_BYTES + (long) longsFor(volume, bits) * Long.BYTES;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (channel.size() != bytes) {
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getInt(8) != bits
+                    || buffer.getInt(12) != volume || buffer.getInt(16) != palette.length
+                    || buffer.getLong(KEY_OFFSET) != key) {
+                return null;
+            }
+            ByteBuffer body = buffer.slice(HEADER_BYTES, (int) (bytes - HEADER_BYTES));
+            return new PackedFillPattern(palette, sizeX, sizeY, sizeZ, body.asLongBuffer());
+        }
+    }
+
+    private void set(int index, int value) {
+        int word = index / valuesPerLong;
+        int shift = (index - word * valuesPerLong) * bits;
+        data.put(word, data.get(word) & ~(mask << shift) | ((long) value & mask) << shift);
+    }
+
+    /**
+     * Sets the palette index at {@code (x, y, z)} relative to the pattern's minimum corner.
+     */
+    void set(int x, int y, int z, int paletteIndex) {
+        set((y * sizeZ + z) * sizeX + x, paletteIndex);
+    }
+
+    private int get(int index) {
+        int word = index / valuesPerLong;
+        int shift = (index - word * valuesPerLong) * bits;
+        return (int) ((data.get(word) >>> shift) & mask);
+    }
+
+    /**
+     * Decodes the {@code count} entries from {@code index} on into {@code out},
+     * forwards from {@code offset}, or backwards from it when {@code reverse} is set.
+     * Each word is read once and shifted along instead of locating every entry again.
+     */
+    private void decodeRun(int index, int count, BlockState[] out, int offset, boolean reverse) {
+        int word = index / valuesPerLong;
+        int slot = index - word * valuesPerLong;
+        long value = data.get(word) >>> (slot * bits);
+        int step = reverse ? -1 : 1;
+        for (int n = 0; n < count; n++) {
+            if (slot == valuesPerLong) {
+                value = data.get(++word);
+                slot = 0;
+            }
+            out[offset] = palette[(int) (value & mask)];
+            offset += step;
+            value >>>= bits;
+            slot++;
+        }
+    }
+
+    /**
+     * A read‑only view of this pattern placed with its minimum corner at
+     * {@code (originX, originY, originZ)}, optionally mirrored along X and/or Z.
+     * Mirroring keeps every block on its original Y so layer blending is preserved.
+     */
+    FillSource view(int originX, int originY, int originZ, boolean mirrorX, boolean mirrorZ) {
+        return new FillSource() {
+            @Override
+            public BlockState stateAt(int x, int y, int z, MineRandom random) {
+                int lx = mirrorX ? sizeX - 1 - (x - originX) : x - originX;
+                int lz = mirrorZ ? sizeZ - 1 - (z - originZ) : z - originZ;
+                return palette[get(((y - originY) * sizeZ + lz) * sizeX + lx)];
+            }
+
+            @Override
+            public BlockState[] tileStates(MineTile tile, BlockState[] buffer, MineRandom random) {
+                int width = tile.sizeX();
+                // the run of stored entries a row covers; mirrored, it is read backwards
+                int lx = mirrorX ? sizeX - 1 - (tile.maxX() - originX) : tile.minX() - originX;
+                int i = 0;
+                for (int y = tile.minY(); y <= tile.maxY(); y++) {
+                    int row = (y - originY) * sizeZ;
+                    for (int z = tile.minZ(); z <= tile.maxZ(); z++) {
+                        int lz = mirrorZ ? sizeZ - 1 - (z - originZ) : z - originZ;
+                        int start = (row + lz) * sizeX + lx;
+                        if (mirrorX) {
+                            decodeRun(start, width, buffer, i + width - 1, true);
+                        } else {
+                            decodeRun(start, width, buffer, i, false);
+                        }
+                        i += width;
+                    }
+                }
+                return buffer;
+            }
+        };
+    }
+
+    /**
+     * A read‑only view that repeats this pattern in every direction, with one copy's
+     * minimum corner at {@code (originX, originY, originZ)}.
+     */
+    FillSource tiledView(int originX, int originY, int originZ) {
+        return new FillSource() {
+            @Override
+            public BlockState stateAt(int x, int y, int z, MineRandom random) {
+                int lx = Math.floorMod(x - originX, sizeX);
+                int ly = Math.floorMod(y - originY, sizeY);
+                int lz = Math.floorMod(z - originZ, sizeZ);
+                return palette[get((ly * sizeZ + lz) * sizeX + lx)];
+            }
+
+            @Override
+            public BlockState[] tileStates(MineTile tile, BlockState[] buffer, MineRandom random) {
+                int i = 0;
+                for (int y = tile.minY(); y <= tile.maxY(); y++) {
+                    int row = Math.floorMod(y - originY, sizeY) * sizeZ;
+                    for (int z = tile.minZ(); z <= tile.maxZ(); z++) {
+                        int base = (row + Math.floorMod(z - originZ, sizeZ)) * sizeX;
+                        int lx = Math.floorMod(tile.minX() - originX, sizeX);
+                        for (int x = tile.minX(); x <= tile.maxX(); x++) {
+                            buffer[i++] = palette[get(base + lx)];
+                            if (++lx == sizeX) {
+                                lx = 0;
+                            }
+                        }
+                    }
+                }
+                return buffer;
+            }
+        };
+    }
+
+    public int sizeX() {
+        return sizeX;
+    }
+
+    public int sizeY() {
+        return sizeY;
+    }
+
+    public int sizeZ() {
+        return sizeZ;
+    }
+
+    /**
+     * A copy of the packed data, see {@link #wrap}.
+     */
+    long[] toLongArray() {
+        long[] copy = new long[data.capacity()];
+        data.get(0, copy);
+        return copy;
+    }
+
+    public int sizeInBytes() {
+        return data.capacity() * Long.BYTES;
+    }
+}
@@ -0,0 +1,11 @@
+package net.akashaverse.akashicrecords.core.mine;
+
+/**
+ * Where pre‑generated fill variants are kept, see {@link MineFillVariants}.
+ */
+public enum PatternStorage {
+    /** packed arrays on the heap */
+    MEMORY,
+    /** packed arrays in memory‑mapped files under the world's data folder */
+    MAPPED_FILE
+}
@@ -0,0 +1,74 @@
+package net.akashaverse.akashicrecords.core.mine;
+
+import net.akashaverse.akashicrecords.configs.MineConfig;
+
+/**
+ * Server‑wide admission control for mine regeneration.  Every level shares the
+ * budget it hands out each tick, and that budget shrinks while the server runs
+ * slower than {@link MineConfig#TARGET_MSPT}: it is cut by a quarter each second
+ * the average tick time is above target and grows back slowly once the server
+ * has headroom again, never dropping below 1/16 of the configured limits.
+ */
+public class RegenAdmission {
+    private static final RegenAdmission INSTANCE = new RegenAdmission();
+
+    private static final double MIN_FACTOR = 1.0 / 16;
+    private static final double DECREASE = 0.75;
+    private static final double INCREASE = 1.0 / 32;
+    /** ticks between two adjustments, so the averaged tick time can react first */
+    private static final int ADJUST_INTERVAL = 20;
+
+    private double factor = 1.0;
+    private int ticksSinceAdjust;
+
+    RegenAdmission() {}
+
+    public static RegenAdmission get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Feeds the server's average tick time; called once per tick.
+     */
+    public void update(long averageTickNanos) {
+        if (++ticksSinceAdjust < ADJUST_INTERVAL) {
+            return;
+        }
+        ticksSinceAdjust = 0;
+        double mspt = averageTickNanos / 1_000_000.0;
+        double target = MineConfig.TARGET_MSPT.get();
+        if (mspt > target) {
+            factor = Math.max(MIN_FACTOR, factor * DECREASE);
+        } else if (mspt < target * 0.8) {
+            factor = Math.min(1.0, factor + INCREASE);
+        }
+    }
+
+    /**
+     * Fraction of the configured per‑tick limits currently admitted.
+     */
+    public double factor() {
+        return factor;
+    }
+
+    /**
+     * Returns true while the server is too busy for regenerations to run at full speed.
+     */
+    public boolean throttled() {
+        return factor < 1.0;
+    }
+
+    /**
+     * The budget shared by every regeneration in every level for the current tick.
+     */
+    public RegenBudget newBudget() {
+        long blocks = Math.max(1, (long) (MineConfig.REGEN_BLOCKS_PER_TICK.get() * factor));
+        int millis = MineConfig.REGEN_MILLIS_PER_TICK.get();
+        return new RegenBudget(blocks, millis == 0 ? 0 : Math.max(1, (long) Math.ceil(millis * factor)));
+    }
+
+    public void reset() {
+        factor = 1.0;
+        ticksSinceAdjust = 0;
+    }
+}
@@ -0,0 +1,41 @@
+package net.akashaverse.akashicrecords.core.mine;
+
+/**
+ * Amount of regeneration work that may still be done during the current tick.
+ * A budget is bounded both by a number of block writes and by a wall clock
+ * deadline; whichever runs out first ends the slice.  One budget is shared by
+ * every mine that is regenerating in a level so that several simultaneous
+ * resets cannot add up to a long tick.
+ */
+public class RegenBudget {
+    private long blocksRemaining;
+    private final long deadlineNanos;
+
+    /**
+     * @param blocks maximum number of blocks that may be written
+     * @param millis maximum milliseconds that may be spent, or {@code 0} for no time limit
+     */
+    public RegenBudget(long blocks, long millis) {
+        this.blocksRemaining = blocks;
+        this.deadlineNanos = millis > 0 ? System.nanoTime() + millis * 1_000_000L : Long.MAX_VALUE;
+    }
+
+    /**
+     * A budget without limits, used when a mine is regenerated in one go.
+     */
+    public static RegenBudget unlimited() {
+        return new RegenBudget(Long.MAX_VALUE, 0);
+    }
+
+    public boolean exhausted() {
+        return blocksRemaining <= 0 || (deadlineNanos != Long.MAX_VALUE && System.nanoTime() >= deadlineNanos);
+    }
+
+    public long blocksRemaining() {
+        return blocksRemaining;
+    }
+
+    public void consume(long blocks) {
+        blocksRemaining -= blocks;
+    }
+}
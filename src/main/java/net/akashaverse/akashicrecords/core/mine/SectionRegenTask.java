@@ -0,0 +1,58 @@
+package net.akashaverse.akashicrecords.core.mine;
+
+import net.akashaverse.akashicrecords.configs.MineConfig;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.block.state.BlockState;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link MineFillBackend#CHUNK_SECTION} regeneration.  The interior is split into
+ * {@link MineTile}s which are planned or sampled into a reused buffer and handed to a
+ * {@link ChunkSectionWriter} one section at a time.  The budget is charged per
+ * tile, so a slice always finishes the section it started.  Lighting follows the
+ * configured {@link MineRelightMode}.
+ */
+class SectionRegenTask extends MineRegenTask {
+    private final List<MineTile> tiles;
+    private final BlockState[] buffer = new BlockState[16 * 16 * 16];
+    private final MineRelightMode relightMode;
+    /** positions to relight once per section, unless lighting is {@link MineRelightMode#PER_BLOCK} */
+    private final MineSyncBatch relight = new MineSyncBatch();
+    private int cursor;
+
+    SectionRegenTask(Mine mine, MineFillOrder order, MineRandom random, FillSource fallback,
+                     CompletableFuture<? extends FillSource> pendingSource) {
+        super(mine, order, random, fallback, pendingSource);
+        this.tiles = MineTile.split(
+                mine.min.getX() + 1, mine.min.getY() + 1, mine.min.getZ() + 1,
+                mine.max.getX() - 1, mine.max.getY(), mine.max.getZ() - 1,
+                order);
+        this.relightMode = MineConfig.RELIGHT_MODE.get();
+        this.cursor = 0;
+    }
+
+    @Override
+    protected boolean write(ServerLevel level, RegenBudget budget) {
+        ChunkSectionWriter writer = new ChunkSectionWriter(level, sync,
+                relightMode == MineRelightMode.PER_BLOCK ? null : relight);
+        while (cursor < tiles.size() && !budget.exhausted()) {
+            MineTile tile = tiles.get(cursor++);
+            writer.write(tile, tileStates(tile, buffer, random));
+            budget.consume(tile.volume());
+        }
+        writer.finish();
+        if (relightMode == MineRelightMode.PER_SECTION) {
+            MineRelighter.get().submit(level, relight, false);
+        }
+        return cursor >= tiles.size();
+    }
+
+    @Override
+    void complete(ServerLevel level) {
+        if (!relight.isEmpty()) {
+            MineRelighter.get().submit(level, relight, true);
+        }
+    }
+}
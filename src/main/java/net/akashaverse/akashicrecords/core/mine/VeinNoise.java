@@ -0,0 +1,151 @@
+package net.akashaverse.akashicrecords.core.mine;
+
+import it.unimi.dsi.fastutil.HashCommon;
+import net.minecraft.util.Mth;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Smooth 3D value noise in {@code [0, 1)} used to place ore veins, see
+ * {@link FillSource#veins}.  Lattice points {@code veinSize} blocks apart get a hashed
+ * value and positions in between are interpolated with a smoothstep, so neighbouring
+ * blocks get similar values and thresholding the noise yields connected blobs.
+ * <p>
+ * {@link #fill(MineTile, float[])} evaluates a whole tile at once: the lattice is
+ * interpolated along Y and Z once per row of cells and each row of blocks is then
+ * a plain array loop, so a tile costs only a couple of hashes per block row.
+ */
+final class VeinNoise {
+    /**
+     * Noise values at the shares 0, 1/256, ..., 1 of all positions, measured once per
+     * vein size: block positions hit the lattice cells at offsets that depend on the
+     * size, so the spread of values does too.
+     */
+    private static final Map<Integer, float[]> QUANTILES = new ConcurrentHashMap<>();
+
+    private final long seed;
+    private final double frequency;
+
+    VeinNoise(long seed, int veinSize) {
+        this.seed = seed;
+        this.frequency = 1.0 / Math.max(1, veinSize);
+    }
+
+    /**
+     * The noise value that the given share of all positions exceed for veins of
+     * {@code veinSize}, e.g. the ore share of a layer.
+     */
+    static float threshold(double share, int veinSize) {
+        if (share <= 0.0) {
+            return Float.POSITIVE_INFINITY;
+        }
+        if (share >= 1.0) {
+            return Float.NEGATIVE_INFINITY;
+        }
+        float[] quantiles = QUANTILES.computeIfAbsent(Math.max(1, veinSize), VeinNoise::quantiles);
+        double q = (1.0 - share) * (quantiles.length - 1);
+        int i = (int) q;
+        float t = (float) (q - i);
+        return Mth.lerp(t, quantiles[i], quantiles[Math.min(i + 1, quantiles.length - 1)]);
+    }
+
+    /**
+     * The noise value at one position.
+     */
+    float sample(int x, int y, int z) {
+        double px = x * frequency;
+        double py = y * frequency;
+        double pz = z * frequency;
+        int ix = Mth.floor(px);
+        int iy = Mth.floor(py);
+        int iz = Mth.floor(pz);
+        float tx = smooth(px - ix);
+        float ty = smooth(py - iy);
+        float tz = smooth(pz - iz);
+        float x00 = Mth.lerp(tx, lattice(ix, iy, iz), lattice(ix + 1, iy, iz));
+        float x10 = Mth.lerp(tx, lattice(ix, iy + 1, iz), lattice(ix + 1, iy + 1, iz));
+        float x01 = Mth.lerp(tx, lattice(ix, iy, iz + 1), lattice(ix + 1, iy, iz + 1));
+        float x11 = Mth.lerp(tx, lattice(ix, iy + 1, iz + 1), lattice(ix + 1, iy + 1, iz + 1));
+        return Mth.lerp(tz, Mth.lerp(ty, x00, x10), Mth.lerp(ty, x01, x11));
+    }
+
+    /**
+     * Evaluates every position of {@code tile} into {@code out}, in
+     * {@link MineTile#index(int, int, int)} order, and returns {@code out}.
+     */
+    float[] fill(MineTile tile, float[] out) {
+        int sizeX = tile.sizeX();
+        int firstCell = Mth.floor(tile.minX() * frequency);
+        int cells = Mth.floor(tile.maxX() * frequency) - firstCell + 2;
+        int[] cellOf = new int[sizeX];
+        float[] tx = new float[sizeX];
+        for (int x = 0; x < sizeX; x++) {
+            double px = (tile.minX() + x) * frequency;
+            int ix = Mth.floor(px);
+            cellOf[x] = ix - firstCell;
+            tx[x] = smooth(px - ix);
+        }
+        float[] row = new float[cells];
+        int i = 0;
+        for (int y = tile.minY(); y <= tile.maxY(); y++) {
+            double py = y * frequency;
+            int iy = Mth.floor(py);
+            float ty = smooth(py - iy);
+            for (int z = tile.minZ(); z <= tile.maxZ(); z++) {
+                double pz = z * frequency;
+                int iz = Mth.floor(pz);
+                float tz = smooth(pz - iz);
+                for (int c = 0; c < cells; c++) {
+                    int ix = firstCell + c;
+                    float near = Mth.lerp(ty, lattice(ix, iy, iz), lattice(ix, iy + 1, iz));
+                    float far = Mth.lerp(ty, lattice(ix, iy, iz + 1), lattice(ix, iy + 1, iz + 1));
+                    row[c] = Mth.lerp(tz, near, far);
+                }
+                for (int x = 0; x < sizeX; x++) {
+                    int c = cellOf[x];
+                    out[i++] = row[c] + (row[c + 1] - row[c]) * tx[x];
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * 64 random bits shared by every position in the same lattice cell, used to give
+     * a whole vein the same ore.
+     */
+    long cell(int x, int y, int z) {
+        return hash(Mth.floor(x * frequency), Mth.floor(y * frequency), Mth.floor(z * frequency), ~seed);
+    }
+
+    private float lattice(int x, int y, int z) {
+        return (hash(x, y, z, seed) >>> 40) * 0x1.0p-24f;
+    }
+
+    private static long hash(int x, int y, int z, long seed) {
+        return HashCommon.murmurHash3(seed ^ x * 0x9E3779B97F4A7C15L ^ y * 0xC2B2AE3D27D4EB4FL ^ z * 0x165667B19E3779F9L);
+    }
+
+    private static float smooth(double t) {
+        float f = (float) t;
+        return f * f * (3.0f - 2.0f * f);
+    }
+
+    private static float[] quantiles(int veinSize) {
+        VeinNoise noise = new VeinNoise(0x5EEDL, veinSize);
+        SplittableRandom random = new SplittableRandom(0x5EEDL);
+        float[] values = new float[1 << 16];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = noise.sample(random.nextInt(1 << 20), random.nextInt(1 << 10), random.nextInt(1 << 20));
+        }
+        Arrays.sort(values);
+        float[] quantiles = new float[257];
+        for (int q = 0; q < quantiles.length; q++) {
+            quantiles[q] = values[Math.min(values.length - 1, q * (values.length / 256))];
+        }
+        return quantiles;
+    }
+}
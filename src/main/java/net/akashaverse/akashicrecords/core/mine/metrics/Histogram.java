@@ -0,0 +1,90 @@
+package net.akashaverse.akashicrecords.core.mine.metrics;
+
+/**
+ * Fixed‑bucket histogram of durations in nanoseconds.  Bucket bounds grow by a
+ * factor of four from 1 µs to about 17 s, so recording is a short scan over a
+ * dozen longs and never allocates.  Only written from the server thread.
+ */
+public class Histogram {
+    /** inclusive upper bounds of every bucket but the last, in nanoseconds */
+    static final long[] BOUNDS = new long[13];
+
+    static {
+        long bound = 1_000L;
+        for (int i = 0; i < BOUNDS.length; i++) {
+            BOUNDS[i] = bound;
+            bound *= 4;
+        }
+    }
+
+    private final long[] buckets = new long[BOUNDS.length + 1];
+    private long count;
+    private long sum;
+    private long max;
+
+    public void record(long nanos) {
+        int i = 0;
+        while (i < BOUNDS.length && nanos > BOUNDS[i]) {
+            i++;
+        }
+        buckets[i]++;
+        count++;
+        sum += nanos;
+        max = Math.max(max, nanos);
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public long sum() {
+        return sum;
+    }
+
+    public long max() {
+        return max;
+    }
+
+    public long mean() {
+        return count == 0 ? 0 : sum / count;
+    }
+
+    /**
+     * Upper bound of the bucket holding the given quantile, capped at the largest
+     * value recorded.
+     */
+    public long quantile(double q) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(q * count);
+        long seen = 0;
+        for (int i = 0; i < BOUNDS.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                return Math.min(BOUNDS[i], max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Number of recorded values in bucket {@code i} and every bucket below it.
+     */
+    long cumulative(int i) {
+        long total = 0;
+        for (int b = 0; b <= i; b++) {
+            total += buckets[b];
+        }
+        return total;
+    }
+
+    public Histogram copy() {
+        Histogram copy = new Histogram();
+        System.arraycopy(buckets, 0, copy.buckets, 0, buckets.length);
+        copy.count = count;
+        copy.sum = sum;
+        copy.max = max;
+        return copy;
+    }
+}
@@ -0,0 +1,19 @@
+package net.akashaverse.akashicrecords.core.mine.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for teleporting the players out of a mine before it resets.
+ */
+@Name("akashicrecords.MineEviction")
+@Label("Mine Eviction")
+@Category({"Akashic Records", "Mines"})
+public class MineEvictionEvent extends jdk.jfr.Event {
+    @Label("Mine")
+    public String mine;
+
+    @Label("Players")
+    public int players;
+}
@@ -0,0 +1,216 @@
+package net.akashaverse.akashicrecords.core.mine.metrics;
+
+import net.akashaverse.akashicrecords.AkashicRecords;
+import net.akashaverse.akashicrecords.configs.MineConfig;
+import net.akashaverse.akashicrecords.core.mine.MineManager;
+import net.minecraft.Util;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Server‑wide mine metrics: the time mines take out of each tick and a periodic
+ * OpenMetrics export of every mine's {@link MineStats}.
+ * <p>
+ * The export asks each {@link MineManager} to publish its mines on the server thread,
+ * then reads the published {@link MineManager#snapshot() snapshots}, formats and writes
+ * them on the IO pool, replacing {@code mines.prom} in the mod's world data folder
+ * atomically so a scraper never reads a half‑written file.
+ */
+public class MineMetrics {
+    private static final MineMetrics INSTANCE = new MineMetrics();
+
+    /** number of ticks the tick share is averaged over, like vanilla's tick times */
+    private static final int TICK_WINDOW = 100;
+
+    private final long[] tickNanos = new long[TICK_WINDOW];
+    private int tickIndex;
+    private final Histogram ticks = new Histogram();
+    private long lastExportNanos = System.nanoTime();
+    private boolean exporting;
+
+    record MineSnapshot(String level, String name, MineStats stats) {}
+
+    MineMetrics() {}
+
+    public static MineMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Records the mine work of one server tick and exports the metrics when due.
+     */
+    public void tick(MinecraftServer server, long nanos) {
+        tickNanos[tickIndex] = nanos;
+        tickIndex = (tickIndex + 1) % TICK_WINDOW;
+        ticks.record(nanos);
+
+        int interval = MineConfig.METRICS_EXPORT_SECONDS.get();
+        long now = System.nanoTime();
+        if (interval > 0 && !exporting && now - lastExportNanos >= interval * 1_000_000_000L) {
+            lastExportNanos = now;
+            export(server);
+        }
+    }
+
+    /**
+     * Average nanoseconds per tick spent on mines over the last {@value #TICK_WINDOW} ticks.
+     */
+    public long averageTickNanos() {
+        long total = 0;
+        for (long nanos : tickNanos) {
+            total += nanos;
+        }
+        return total / TICK_WINDOW;
+    }
+
+    /**
+     * Share of the average tick time (MSPT) spent on mines, between 0 and 1.
+     */
+    public double tickShare(MinecraftServer server) {
+        long mspt = server.getAverageTickTimeNanos();
+        return mspt <= 0 ? 0 : Math.min(1.0, (double) averageTickNanos() / mspt);
+    }
+
+    public Histogram ticks() {
+        return ticks;
+    }
+
+    /**
+     * Forgets the tick history, e.g. when the server stops.  Mine counters live on the
+     * mines themselves and go with them.
+     */
+    public void clear() {
+        Arrays.fill(tickNanos, 0);
+        tickIndex = 0;
+        exporting = false;
+        lastExportNanos = System.nanoTime();
+    }
+
+    private void export(MinecraftServer server) {
+        Map<String, MineManager> managers = new LinkedHashMap<>();
+        for (ServerLevel level : server.getAllLevels()) {
+            MineManager manager = MineManager.get(level);
+            manager.publishStats();
+            managers.put(level.dimension().location().toString(), manager);
+        }
+        long tickAverage = averageTickNanos();
+        double share = tickShare(server);
+        Histogram tickHistogram = ticks.copy();
+        Path file = MineManager.dataDirectory(server.overworld()).resolve("mines.prom");
+        exporting = true;
+        Util.ioPool().execute(() -> {
+            try {
+                List<MineSnapshot> mines = new ArrayList<>();
+                managers.forEach((levelName, manager) -> manager.snapshot().mines().forEach((name, mine) ->
+                        mines.add(new MineSnapshot(levelName, name, mine.stats()))));
+                write(file, mines, tickAverage, share, tickHistogram);
+            } catch (IOException e) {
+                AkashicRecords.LOGGER.warn("Could not write mine metrics to {}", file, e);
+            } finally {
+                server.execute(() -> exporting = false);
+            }
+        });
+    }
+
+    static void write(Path file, List<MineSnapshot> mines, long tickAverage, double share,
+                      Histogram tickHistogram) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (Writer out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            gauge(out, "akashic_mine_tick_seconds", "Average time per tick spent on mines", tickAverage / 1e9);
+            gauge(out, "akashic_mine_tick_share", "Share of the average tick time spent on mines", share);
+            histogram(out, "akashic_mine_tick_duration_seconds", "Time spent on mines per tick",
+                    List.of(new Labelled("", tickHistogram)));
+
+            counter(out, mines, "akashic_mine_resets", "Completed mine resets", s -> s.resets);
+            counter(out, mines, "akashic_mine_skipped_resets", "Delta resets skipped because nothing changed", s -> s.skippedResets);
+            counter(out, mines, "akashic_mine_deferred_resets", "Resets deferred until the mine's chunks load", s -> s.deferredResets);
+            counter(out, mines, "akashic_mine_blocks_written", "Blocks written by regenerations", s -> s.blocksWritten);
+            counter(out, mines, "akashic_mine_sections_touched", "Chunk sections changed by regenerations", s -> s.sectionsTouched);
+            counter(out, mines, "akashic_mine_chunks_touched", "Chunks changed by regenerations", s -> s.chunksTouched);
+            counter(out, mines, "akashic_mine_players_evicted", "Players teleported out of resetting mines", s -> s.playersEvicted);
+            counter(out, mines, "akashic_mine_border_checks", "Border positions checked by the border verifier", s -> s.borderChecks);
+            counter(out, mines, "akashic_mine_border_repairs", "Border blocks put back by the border verifier", s -> s.borderRepairs);
+            counter(out, mines, "akashic_mine_prepared_resets", "Resets that applied a fill planned during the warning", s -> s.preparedResets);
+            counter(out, mines, "akashic_mine_discarded_preparations", "Fills planned during the warning and dropped as stale", s -> s.discardedPreparations);
+
+            List<Labelled> regen = new ArrayList<>(mines.size());
+            List<Labelled> warnings = new ArrayList<>(mines.size());
+            List<Labelled> evictions = new ArrayList<>(mines.size());
+            for (MineSnapshot mine : mines) {
+                String labels = labels(mine);
+                regen.add(new Labelled(labels, mine.stats().regen));
+                warnings.add(new Labelled(labels, mine.stats().warnings));
+                evictions.add(new Labelled(labels, mine.stats().evictions));
+            }
+            histogram(out, "akashic_mine_regen_seconds", "Time spent writing blocks per regeneration", regen);
+            histogram(out, "akashic_mine_warning_seconds", "Time spent sending a reset warning", warnings);
+            histogram(out, "akashic_mine_eviction_seconds", "Time spent evicting players before a reset", evictions);
+            out.write("# EOF\n");
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private record Labelled(String labels, Histogram histogram) {}
+
+    private interface Counter {
+        long get(MineStats stats);
+    }
+
+    private static void gauge(Writer out, String name, String help, double value) throws IOException {
+        out.write("# TYPE " + name + " gauge\n");
+        out.write("# HELP " + name + " " + help + "\n");
+        out.write(name + " " + format(value) + "\n");
+    }
+
+    private static void counter(Writer out, List<MineSnapshot> mines, String name, String help, Counter counter)
+            throws IOException {
+        out.write("# TYPE " + name + " counter\n");
+        out.write("# HELP " + name + " " + help + "\n");
+        for (MineSnapshot mine : mines) {
+            out.write(name + "_total{" + labels(mine) + "} " + counter.get(mine.stats()) + "\n");
+        }
+    }
+
+    private static void histogram(Writer out, String name, String help, List<Labelled> series) throws IOException {
+        out.write("# TYPE " + name + " histogram\n");
+        out.write("# HELP " + name + " " + help + "\n");
+        for (Labelled entry : series) {
+            Histogram histogram = entry.histogram();
+            String prefix = entry.labels().isEmpty() ? "" : entry.labels() + ",";
+            for (int i = 0; i < Histogram.BOUNDS.length; i++) {
+                out.write(name + "_bucket{" + prefix + "le=\"" + format(Histogram.BOUNDS[i] / 1e9) + "\"} "
+                        + histogram.cumulative(i) + "\n");
+            }
+            out.write(name + "_bucket{" + prefix + "le=\"+Inf\"} " + histogram.count() + "\n");
+            String suffix = entry.labels().isEmpty() ? "" : "{" + entry.labels() + "}";
+            out.write(name + "_count" + suffix + " " + histogram.count() + "\n");
+            out.write(name + "_sum" + suffix + " " + format(histogram.sum() / 1e9) + "\n");
+        }
+    }
+
+    private static String labels(MineSnapshot mine) {
+        return "level=\"" + escape(mine.level()) + "\",mine=\"" + escape(mine.name()) + "\"";
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.9g", value);
+    }
+}
@@ -0,0 +1,33 @@
+package net.akashaverse.akashicrecords.core.mine.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event spanning a mine regeneration from its start to its last slice.
+ */
+@Name("akashicrecords.MineReset")
+@Label("Mine Reset")
+@Category({"Akashic Records", "Mines"})
+@Description("Regeneration of a mine's interior, possibly spread over several ticks")
+public class MineResetEvent extends jdk.jfr.Event {
+    @Label("Mine")
+    public String mine;
+
+    @Label("Blocks")
+    public long blocks;
+
+    @Label("Active Time")
+    @Description("Time spent writing blocks, excluding the ticks in between slices")
+    @Timespan(Timespan.NANOSECONDS)
+    public long activeNanos;
+
+    @Label("Sections")
+    public int sections;
+
+    @Label("Chunks")
+    public int chunks;
+}
@@ -0,0 +1,126 @@
+package net.akashaverse.akashicrecords.core.mine.metrics;
+
+/**
+ * Counters and histograms for a single mine.  Updated on the server thread as the
+ * mine warns, evicts and regenerates; {@link #copy()} takes a snapshot for export.
+ */
+public class MineStats {
+    /** regeneration time actually spent writing, summed over its slices */
+    public final Histogram regen;
+    public final Histogram warnings;
+    public final Histogram evictions;
+    public long resets;
+    public long skippedResets;
+    public long deferredResets;
+    public long blocksWritten;
+    public long regenNanos;
+    public long sectionsTouched;
+    public long chunksTouched;
+    public long playersEvicted;
+    /** border positions checked and repaired by the border verifier */
+    public long borderChecks;
+    public long borderRepairs;
+    /** resets that applied a fill planned during their warning, and plans dropped as stale */
+    public long preparedResets;
+    public long discardedPreparations;
+
+    /** state of the regeneration in progress */
+    private long currentNanos;
+    private long currentBlocks;
+    private MineResetEvent currentEvent;
+
+    public MineStats() {
+        this(new Histogram(), new Histogram(), new Histogram());
+    }
+
+    private MineStats(Histogram regen, Histogram warnings, Histogram evictions) {
+        this.regen = regen;
+        this.warnings = warnings;
+        this.evictions = evictions;
+    }
+
+    public void regenStarted() {
+        currentNanos = 0;
+        currentBlocks = 0;
+        currentEvent = new MineResetEvent();
+        currentEvent.begin();
+    }
+
+    /**
+     * Accounts for one slice of the regeneration in progress.
+     */
+    public void regenSlice(long nanos, long blocks) {
+        currentNanos += nanos;
+        currentBlocks += blocks;
+        regenNanos += nanos;
+        blocksWritten += blocks;
+    }
+
+    /**
+     * Closes the regeneration in progress.  Its JFR event is committed by
+     * {@link #commitReset(String)} once the caller knows the mine's name.
+     */
+    public void regenFinished(int sections, int chunks) {
+        resets++;
+        regen.record(currentNanos);
+        sectionsTouched += sections;
+        chunksTouched += chunks;
+        if (currentEvent != null) {
+            currentEvent.end();
+            currentEvent.blocks = currentBlocks;
+            currentEvent.activeNanos = currentNanos;
+            currentEvent.sections = sections;
+            currentEvent.chunks = chunks;
+        }
+    }
+
+    public void commitReset(String name) {
+        MineResetEvent event = currentEvent;
+        currentEvent = null;
+        if (event != null && event.shouldCommit()) {
+            event.mine = name;
+            event.commit();
+        }
+    }
+
+    /**
+     * Blocks written outside a regeneration, e.g. by a lazy reset refilling a chunk.
+     */
+    public void blocksWritten(long nanos, long blocks) {
+        regenNanos += nanos;
+        blocksWritten += blocks;
+    }
+
+    public void warned(long nanos) {
+        warnings.record(nanos);
+    }
+
+    public void evicted(long nanos, int players) {
+        evictions.record(nanos);
+        playersEvicted += players;
+    }
+
+    /**
+     * Blocks written per second of regeneration time, over the mine's lifetime.
+     */
+    public double blocksPerSecond() {
+        return regenNanos == 0 ? 0 : blocksWritten * 1e9 / regenNanos;
+    }
+
+    public MineStats copy() {
+        MineStats copy = new MineStats(regen.copy(), warnings.copy(), evictions.copy());
+        copy.resets = resets;
+        copy.skippedResets = skippedResets;
+        copy.deferredResets = deferredResets;
+        copy.blocksWritten = blocksWritten;
+        copy.regenNanos = regenNanos;
+        copy.sectionsTouched = sectionsTouched;
+        copy.chunksTouched = chunksTouched;
+        copy.playersEvicted = playersEvicted;
+        copy.borderChecks = borderChecks;
+        copy.borderRepairs = borderRepairs;
+        copy.preparedResets = preparedResets;
+        copy.discardedPreparations = discardedPreparations;
+        return copy;
+    }
+}
@@ -0,0 +1,18 @@
+package net.akashaverse.akashicrecords.core.mine.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * JFR event for the mine work done in one server tick: deadlines, regeneration
+ * slices, client sync and relighting.  Only recorded when it takes at least 1 ms
+ * unless the recording lowers the threshold.
+ */
+@Name("akashicrecords.MineTick")
+@Label("Mine Tick")
+@Category({"Akashic Records", "Mines"})
+@Threshold("1 ms")
+public class MineTickEvent extends jdk.jfr.Event {
+}
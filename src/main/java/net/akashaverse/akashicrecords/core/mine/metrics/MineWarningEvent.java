@@ -0,0 +1,19 @@
+package net.akashaverse.akashicrecords.core.mine.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for sending a mine's reset warning to the players inside it.
+ */
+@Name("akashicrecords.MineWarning")
+@Label("Mine Warning")
+@Category({"Akashic Records", "Mines"})
+public class MineWarningEvent extends jdk.jfr.Event {
+    @Label("Mine")
+    public String mine;
+
+    @Label("Players")
+    public int players;
+}
@@ -1,21 +1,134 @@
 package net.akashaverse.akashicrecords.events;
 
 import net.akashaverse.akashicrecords.AkashicRecords;
+import net.akashaverse.akashicrecords.configs.MineConfig;
+import net.akashaverse.akashicrecords.configs.MineTypeWatcher;
+import net.akashaverse.akashicrecords.core.mine.Mine;
+import net.akashaverse.akashicrecords.core.mine.MineClientSync;
+import net.akashaverse.akashicrecords.core.mine.MineFillPlanner;
+import net.akashaverse.akashicrecords.core.mine.MineLayerProfiles;
 import net.akashaverse.akashicrecords.core.mine.MineManager;
+import net.akashaverse.akashicrecords.core.mine.MineRelighter;
+import net.akashaverse.akashicrecords.core.mine.MineScheduler;
+import net.akashaverse.akashicrecords.core.mine.MineTemplates;
+import net.akashaverse.akashicrecords.core.mine.RegenAdmission;
+import net.akashaverse.akashicrecords.core.mine.metrics.MineMetrics;
+import net.akashaverse.akashicrecords.core.mine.metrics.MineTickEvent;
+import net.neoforged.bus.api.EventPriority;
 import net.neoforged.bus.api.SubscribeEvent;
 import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.common.util.BlockSnapshot;
+import net.neoforged.neoforge.event.TagsUpdatedEvent;
+import net.neoforged.neoforge.event.level.BlockEvent;
+import net.neoforged.neoforge.event.level.ChunkEvent;
+import net.neoforged.neoforge.event.level.ExplosionEvent;
+import net.neoforged.neoforge.event.level.LevelEvent;
+import net.neoforged.neoforge.event.server.ServerAboutToStartEvent;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+import net.neoforged.neoforge.event.server.ServerStoppingEvent;
 import net.neoforged.neoforge.event.tick.ServerTickEvent;
-import net.minecraft.server.MinecraftServer;
+import net.minecraft.core.BlockPos;
 import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.LevelAccessor;
 
 @EventBusSubscriber(modid = AkashicRecords.MOD_ID)
 public class MineEvents {
     @SubscribeEvent
     public static void onServerTick(ServerTickEvent.Post event) {
-        MinecraftServer server = event.getServer();
-        for (ServerLevel level : server.getAllLevels()) {
-            MineManager manager = MineManager.get(level);
-            manager.tick(level);
+        MineTickEvent jfr = new MineTickEvent();
+        jfr.begin();
+        long start = System.nanoTime();
+        RegenAdmission.get().update(event.getServer().getAverageTickTimeNanos());
+        MineScheduler.get().tick(event.getServer().overworld().getGameTime());
+        MineClientSync.get().tick(event.getServer());
+        MineRelighter.get().tick();
+        // border checks are scaled down like regeneration while the server is behind
+        MineScheduler.get().verifyBorders(
+                (int) (MineConfig.BORDER_CHECKS_PER_TICK.get() * RegenAdmission.get().factor()));
+        MineMetrics.get().tick(event.getServer(), System.nanoTime() - start);
+        jfr.commit();
+    }
+
+    @SubscribeEvent
+    public static void onLevelLoad(LevelEvent.Load event) {
+        // Loading the manager queues the deadlines of the level's mines
+        if (event.getLevel() instanceof ServerLevel level) {
+            MineManager.get(level);
+        }
+    }
+
+    @SubscribeEvent
+    public static void onChunkLoad(ChunkEvent.Load event) {
+        if (event.getLevel() instanceof ServerLevel level) {
+            ChunkPos pos = event.getChunk().getPos();
+            MineManager.get(level).onChunkLoad(pos.x, pos.z);
+        }
+    }
+
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public static void onBlockBreak(BlockEvent.BreakEvent event) {
+        markChanged(event.getLevel(), event.getPos());
+    }
+
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public static void onBlockPlace(BlockEvent.EntityPlaceEvent event) {
+        if (event instanceof BlockEvent.EntityMultiPlaceEvent multi) {
+            for (BlockSnapshot snapshot : multi.getReplacedBlockSnapshots()) {
+                markChanged(event.getLevel(), snapshot.getPos());
+            }
+        } else {
+            markChanged(event.getLevel(), event.getPos());
         }
     }
+
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public static void onExplosion(ExplosionEvent.Detonate event) {
+        for (BlockPos pos : event.getAffectedBlocks()) {
+            markChanged(event.getLevel(), pos);
+        }
+    }
+
+    /**
+     * Records a block change for delta resets if it happened inside a mine.
+     */
+    private static void markChanged(LevelAccessor level, BlockPos pos) {
+        if (level instanceof ServerLevel serverLevel) {
+            Mine mine = MineManager.get(serverLevel).getMineAt(pos);
+            if (mine != null) {
+                mine.markChanged(pos);
+            }
+        }
+    }
+
+    @SubscribeEvent
+    public static void onTagsUpdated(TagsUpdatedEvent event) {
+        // a datapack reload can move blocks in or out of c:ores, which vein profiles split on
+        if (event.getUpdateCause() == TagsUpdatedEvent.UpdateCause.SERVER_DATA_LOAD) {
+            MineLayerProfiles.get().invalidate();
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerAboutToStart(ServerAboutToStartEvent event) {
+        MineFillPlanner.start();
+    }
+
+    @SubscribeEvent
+    public static void onServerStopping(ServerStoppingEvent event) {
+        // the levels are saved after this, so queued relights still make it to disk
+        MineRelighter.get().drain();
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        MineFillPlanner.shutdown();
+        MineScheduler.get().clear();
+        MineClientSync.get().clear();
+        MineRelighter.get().clear();
+        MineTemplates.get().clear();
+        MineMetrics.get().clear();
+        RegenAdmission.get().reset();
+        MineTypeWatcher.stop();
+    }
 }
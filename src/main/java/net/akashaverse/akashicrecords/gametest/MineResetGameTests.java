@@ -0,0 +1,253 @@
+package net.akashaverse.akashicrecords.gametest;
+
+import net.akashaverse.akashicrecords.AkashicRecords;
+import net.akashaverse.akashicrecords.configs.MineConfig;
+import net.akashaverse.akashicrecords.core.mine.Mine;
+import net.akashaverse.akashicrecords.core.mine.MineLayer;
+import net.akashaverse.akashicrecords.core.mine.MineManager;
+import net.akashaverse.akashicrecords.core.mine.WeightedBlock;
+import net.akashaverse.akashicrecords.core.mine.metrics.MineStats;
+import net.minecraft.core.BlockPos;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.gametest.framework.GameTestSequence;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.block.Blocks;
+import net.neoforged.neoforge.gametest.GameTestHolder;
+import net.neoforged.neoforge.gametest.PrefixGameTestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Throughput checks for mine resets, run headlessly by the {@code gameTestServer}
+ * run configuration.  Each test builds a mine of a given size and layer count inside
+ * an empty arena, fills it once, then resets it {@value #RESETS} times through
+ * {@link MineManager#resetNow} with simulated players standing inside.  Every reset
+ * must evict all players and stay within time and tick budgets derived from the
+ * mine's volume and the regeneration limits in {@link MineConfig}.
+ * <p>
+ * The budgets are deliberately loose, several times what a reset takes on an
+ * ordinary machine, so they catch regressions of an order of magnitude rather than
+ * noise.  The measured timings are written to a CSV report, see {@link MineTimingReport}.
+ * <p>
+ * Every test runs in its own batch, so no other test shares its regeneration budget.
+ */
+@GameTestHolder(AkashicRecords.MOD_ID)
+@PrefixGameTestTemplate(false)
+public class MineResetGameTests {
+    /** an empty 48 x 40 x 48 structure, large enough for the largest mine below */
+    private static final String ARENA = "mine_arena";
+    private static final int TIMEOUT_TICKS = 2400;
+    private static final int RESETS = 3;
+
+    /** active regeneration time allowed per interior block */
+    private static final long NANOS_PER_BLOCK = 10_000L;
+    /** time allowed for evicting every player of one reset */
+    private static final long EVICTION_NANOS = 20_000_000L;
+    /** ticks allowed on top of the limits, e.g. for the reset deadline and planning */
+    private static final int SLACK_TICKS = 20;
+    /** a slice finishes the section it started, so it may overshoot the time limit by this much */
+    private static final long SLICE_SLACK_NANOS = 5_000_000L;
+
+    private static final String[] HOSTS = {
+            "minecraft:stone", "minecraft:andesite", "minecraft:diorite", "minecraft:granite",
+            "minecraft:deepslate", "minecraft:tuff", "minecraft:calcite", "minecraft:cobbled_deepslate"
+    };
+
+    record Case(String name, int sizeX, int sizeY, int sizeZ, int layers, int players) {
+        /** blocks a reset writes: the walls and floor are the border, the top is open */
+        int interiorBlocks() {
+            return (sizeX - 2) * (sizeY - 1) * (sizeZ - 2);
+        }
+    }
+
+    @GameTest(template = ARENA, timeoutTicks = TIMEOUT_TICKS, batch = "mine_reset_small_flat")
+    public static void smallFlat(GameTestHelper helper) {
+        run(helper, new Case("small_flat", 8, 8, 8, 0, 2));
+    }
+
+    @GameTest(template = ARENA, timeoutTicks = TIMEOUT_TICKS, batch = "mine_reset_small_layered")
+    public static void smallLayered(GameTestHelper helper) {
+        run(helper, new Case("small_layered", 8, 8, 8, 3, 2));
+    }
+
+    @GameTest(template = ARENA, timeoutTicks = TIMEOUT_TICKS, batch = "mine_reset_medium_flat")
+    public static void mediumFlat(GameTestHelper helper) {
+        run(helper, new Case("medium_flat", 24, 16, 24, 0, 4));
+    }
+
+    @GameTest(template = ARENA, timeoutTicks = TIMEOUT_TICKS, batch = "mine_reset_medium_layered")
+    public static void mediumLayered(GameTestHelper helper) {
+        run(helper, new Case("medium_layered", 24, 16, 24, 5, 4));
+    }
+
+    @GameTest(template = ARENA, timeoutTicks = TIMEOUT_TICKS, batch = "mine_reset_large_flat")
+    public static void largeFlat(GameTestHelper helper) {
+        run(helper, new Case("large_flat", 40, 32, 40, 0, 8));
+    }
+
+    @GameTest(template = ARENA, timeoutTicks = TIMEOUT_TICKS, batch = "mine_reset_large_layered")
+    public static void largeLayered(GameTestHelper helper) {
+        run(helper, new Case("large_layered", 40, 32, 40, 8, 8));
+    }
+
+    private static void run(GameTestHelper helper, Case c) {
+        ServerLevel level = helper.getLevel();
+        MineManager manager = MineManager.get(level);
+        String name = "gametest_" + c.name();
+        // the interval keeps a mine left behind by a failed test from resetting again
+        Mine mine = new Mine(
+                helper.absolutePos(new BlockPos(2, 1, 2)),
+                helper.absolutePos(new BlockPos(1 + c.sizeX(), c.sizeY(), 1 + c.sizeZ())),
+                helper.absolutePos(new BlockPos(1, 1, 1)),
+                1_000_000, 0, Blocks.BEDROCK.defaultBlockState(),
+                distribution(0), layers(c.layers()));
+        manager.putMine(name, mine);
+
+        long createStart = System.nanoTime();
+        mine.regenerate(level, MineConfig.FILL_BACKEND.get());
+        long createNanos = System.nanoTime() - createStart;
+        helper.assertTrue(mine.isBorderBuilt(), "Mine " + name + " has no border after its first fill");
+
+        List<ServerPlayer> players = new ArrayList<>();
+        for (int i = 0; i < c.players(); i++) {
+            players.add(helper.makeMockServerPlayerInLevel());
+        }
+
+        ResetRun reset = new ResetRun(helper, manager, name, mine, c, players);
+        GameTestSequence sequence = helper.startSequence();
+        for (int i = 0; i < RESETS; i++) {
+            int index = i;
+            sequence.thenExecute(reset::start)
+                    .thenWaitUntil(() -> helper.assertTrue(reset.finished(), "Mine " + name + " is still resetting"))
+                    .thenExecute(() -> reset.check(index, createNanos));
+        }
+        sequence.thenExecute(() -> {
+            manager.removeMine(name);
+            for (ServerPlayer player : players) {
+                level.getServer().getPlayerList().remove(player);
+            }
+        }).thenSucceed();
+    }
+
+    /**
+     * One reset of a test mine: puts the players inside, asks for the reset and,
+     * once it finished, checks it against the budgets and records its timings.
+     */
+    private static final class ResetRun {
+        private final GameTestHelper helper;
+        private final MineManager manager;
+        private final String name;
+        private final Mine mine;
+        private final Case c;
+        private final List<ServerPlayer> players;
+        private long startTick;
+        private long resetsBefore;
+        private long regenNanosBefore;
+        private long evictionNanosBefore;
+        private long evictedBefore;
+
+        ResetRun(GameTestHelper helper, MineManager manager, String name, Mine mine, Case c,
+                 List<ServerPlayer> players) {
+            this.helper = helper;
+            this.manager = manager;
+            this.name = name;
+            this.mine = mine;
+            this.c = c;
+            this.players = players;
+        }
+
+        void start() {
+            int spanX = mine.max.getX() - mine.min.getX() - 1;
+            int spanY = mine.max.getY() - mine.min.getY();
+            int spanZ = mine.max.getZ() - mine.min.getZ() - 1;
+            for (int i = 0; i < players.size(); i++) {
+                double x = mine.min.getX() + 1 + (i * 7) % spanX + 0.5;
+                double y = mine.min.getY() + 1 + (i * 3) % spanY;
+                double z = mine.min.getZ() + 1 + (i * 5) % spanZ + 0.5;
+                players.get(i).teleportTo(helper.getLevel(), x, y, z, 0.0F, 0.0F);
+                helper.assertTrue(mine.contains(players.get(i).blockPosition()),
+                        "Simulated player " + i + " is not inside mine " + name);
+            }
+            MineStats stats = mine.stats;
+            resetsBefore = stats.resets;
+            regenNanosBefore = stats.regen.sum();
+            evictionNanosBefore = stats.evictions.sum();
+            evictedBefore = stats.playersEvicted;
+            startTick = helper.getTick();
+            helper.assertTrue(manager.resetNow(name, null), "Mine " + name + " is not registered");
+        }
+
+        boolean finished() {
+            return mine.stats.resets > resetsBefore && !mine.isRegenerating();
+        }
+
+        void check(int index, long createNanos) {
+            MineStats stats = mine.stats;
+            long ticks = helper.getTick() - startTick;
+            long regenNanos = stats.regen.sum() - regenNanosBefore;
+            long evictionNanos = stats.evictions.sum() - evictionNanosBefore;
+            long evicted = stats.playersEvicted - evictedBefore;
+            int blocks = c.interiorBlocks();
+
+            helper.assertTrue(evicted == players.size(),
+                    "Mine " + name + " evicted " + evicted + " of " + players.size() + " players");
+            for (ServerPlayer player : players) {
+                helper.assertTrue(!mine.contains(player.blockPosition()),
+                        "A simulated player is still inside mine " + name + " after its reset");
+            }
+            BlockPos center = new BlockPos((mine.min.getX() + mine.max.getX()) / 2,
+                    mine.min.getY() + 1, (mine.min.getZ() + mine.max.getZ()) / 2);
+            helper.assertTrue(!helper.getLevel().getBlockState(center).isAir(),
+                    "Mine " + name + " was not refilled");
+
+            long regenBudget = blocks * NANOS_PER_BLOCK;
+            helper.assertTrue(regenNanos <= regenBudget, String.format(
+                    "Reset of %s took %.1f ms, over its budget of %.1f ms", name, regenNanos / 1e6, regenBudget / 1e6));
+            helper.assertTrue(evictionNanos <= EVICTION_NANOS, String.format(
+                    "Evicting %d players from %s took %.1f ms, over the budget of %.1f ms",
+                    players.size(), name, evictionNanos / 1e6, EVICTION_NANOS / 1e6));
+
+            int blocksPerTick = MineConfig.REGEN_BLOCKS_PER_TICK.get();
+            int millisPerTick = MineConfig.REGEN_MILLIS_PER_TICK.get();
+            long tickBudget = SLACK_TICKS + ceilDiv(blocks, blocksPerTick);
+            if (millisPerTick > 0) {
+                tickBudget += ceilDiv(regenBudget, millisPerTick * 1_000_000L);
+                long perTick = regenNanos / Math.max(1L, ticks);
+                helper.assertTrue(perTick <= millisPerTick * 1_000_000L + SLICE_SLACK_NANOS, String.format(
+                        "Reset of %s spent %.1f ms per tick, over the limit of %d ms", name, perTick / 1e6, millisPerTick));
+            }
+            helper.assertTrue(ticks <= tickBudget,
+                    "Reset of " + name + " took " + ticks + " ticks, over its budget of " + tickBudget);
+
+            MineTimingReport.record(new MineTimingReport.Row(c.name(),
+                    c.sizeX() + "x" + c.sizeY() + "x" + c.sizeZ(), c.layers(), players.size(), index + 1,
+                    blocks, createNanos, regenNanos, ticks, evictionNanos));
+        }
+    }
+
+    private static long ceilDiv(long a, long b) {
+        return (a + b - 1) / b;
+    }
+
+    /**
+     * A host rock with a little coal and iron, the host changing with {@code layer}.
+     */
+    private static List<WeightedBlock> distribution(int layer) {
+        return List.of(
+                new WeightedBlock(HOSTS[layer % HOSTS.length], 90.0),
+                new WeightedBlock(HOSTS[(layer + 1) % HOSTS.length], 6.0),
+                new WeightedBlock("minecraft:coal_ore", 3.0),
+                new WeightedBlock("minecraft:iron_ore", 1.0));
+    }
+
+    private static List<MineLayer> layers(int count) {
+        List<MineLayer> layers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            layers.add(new MineLayer(distribution(i)));
+        }
+        return layers;
+    }
+}
@@ -0,0 +1,59 @@
+package net.akashaverse.akashicrecords.gametest;
+
+import net.akashaverse.akashicrecords.AkashicRecords;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Collects the timings measured by {@link MineResetGameTests} and rewrites them as
+ * CSV after every reset, so a run that is cut short still leaves a report.  The file
+ * is {@code akashicrecords.gametest.report} if that system property is set (the
+ * {@code gameTestServer} run points it into {@code build/reports/gametest}),
+ * otherwise {@code gametest/mine-timings.csv} under the working directory.
+ */
+final class MineTimingReport {
+    private static final String HEADER =
+            "test,size,layers,players,reset,interior_blocks,create_ms,reset_ms,reset_ticks,eviction_us,blocks_per_second";
+
+    private static final List<Row> ROWS = new ArrayList<>();
+
+    record Row(String test, String size, int layers, int players, int reset, int interiorBlocks,
+               long createNanos, long resetNanos, long resetTicks, long evictionNanos) {
+        String toCsv() {
+            double blocksPerSecond = resetNanos == 0 ? 0 : interiorBlocks * 1e9 / resetNanos;
+            return String.format(Locale.ROOT, "%s,%s,%d,%d,%d,%d,%.3f,%.3f,%d,%.1f,%.0f",
+                    test, size, layers, players, reset, interiorBlocks,
+                    createNanos / 1e6, resetNanos / 1e6, resetTicks, evictionNanos / 1e3, blocksPerSecond);
+        }
+    }
+
+    private MineTimingReport() {}
+
+    static synchronized void record(Row row) {
+        ROWS.add(row);
+        Path file = Path.of(System.getProperty("akashicrecords.gametest.report", "gametest/mine-timings.csv"));
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                out.write(HEADER);
+                out.write('\n');
+                for (Row r : ROWS) {
+                    out.write(r.toCsv());
+                    out.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            AkashicRecords.LOGGER.warn("Could not write the mine timing report to {}", file, e);
+        }
+    }
+}